@@ -0,0 +1,50 @@
+package org.monarchinitiative.phenoimp.benchmarks;
+
+import org.monarchinitiative.phenoimp.core.noise.v2.AddNRandomPhenotypeTerms;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.openjdk.jmh.annotations.*;
+import org.phenopackets.schema.v2.Phenopacket;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adding <code>nTerms</code> random phenotypic abnormalities to a phenopacket.
+ * The bundled ontology has 14 phenotypic abnormalities that can be drawn and the phenopacket has 5 of them,
+ * leaving 9 terms to draw. Hence <code>nTerms=10</code> asks for more terms than there are, adds all 9 remaining
+ * terms, and exercises the weighted pass of the sampler.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AddNRandomPhenotypeTermsBenchmark {
+
+    @Param({"1", "5", "10"})
+    public int nTerms;
+
+    private AddNRandomPhenotypeTerms noise;
+    private Phenopacket phenopacket;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Path dataDirectory = Files.createTempDirectory("phenoimp-benchmark");
+        Fixtures.copyDataDirectory(dataDirectory);
+        Ontology hpo = Fixtures.loadHpo(dataDirectory);
+        Fixtures.deleteDirectory(dataDirectory);
+
+        noise = new AddNRandomPhenotypeTerms(hpo, nTerms, 42L);
+        phenopacket = Fixtures.phenopacket();
+        random = new Random(42L);
+    }
+
+    @Benchmark
+    public Phenopacket distort() {
+        return noise.distort(phenopacket, random);
+    }
+}
@@ -0,0 +1,46 @@
+package org.monarchinitiative.phenoimp.benchmarks;
+
+import org.monarchinitiative.phenoimp.core.noise.v2.DropOneOfTwoRecessiveVariants;
+import org.monarchinitiative.phenol.annotations.formats.hpo.HpoDiseases;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.openjdk.jmh.annotations.*;
+import org.phenopackets.schema.v2.Phenopacket;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dropping one of two variants of a phenopacket with a disease segregating with autosomal recessive mode of inheritance.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DropOneOfTwoRecessiveVariantsBenchmark {
+
+    private DropOneOfTwoRecessiveVariants noise;
+    private Phenopacket phenopacket;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Path dataDirectory = Files.createTempDirectory("phenoimp-benchmark");
+        Fixtures.copyDataDirectory(dataDirectory);
+        Ontology hpo = Fixtures.loadHpo(dataDirectory);
+        HpoDiseases diseases = Fixtures.loadDiseases(hpo, dataDirectory);
+        Fixtures.deleteDirectory(dataDirectory);
+
+        noise = new DropOneOfTwoRecessiveVariants(hpo, diseases, 42L);
+        phenopacket = Fixtures.phenopacket();
+        random = new Random(42L);
+    }
+
+    @Benchmark
+    public Phenopacket distort() {
+        return noise.distort(phenopacket, random);
+    }
+}
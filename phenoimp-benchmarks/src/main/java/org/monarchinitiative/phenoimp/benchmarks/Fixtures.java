@@ -0,0 +1,115 @@
+package org.monarchinitiative.phenoimp.benchmarks;
+
+import org.monarchinitiative.phenol.annotations.formats.hpo.HpoDiseases;
+import org.monarchinitiative.phenol.annotations.io.hpo.HpoDiseaseLoader;
+import org.monarchinitiative.phenol.annotations.io.hpo.HpoDiseaseLoaderOptions;
+import org.monarchinitiative.phenol.annotations.io.hpo.HpoDiseaseLoaders;
+import org.monarchinitiative.phenol.io.OntologyLoader;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.phenopackets.phenopackettools.builder.PhenopacketBuilder;
+import org.phenopackets.phenopackettools.builder.builders.*;
+import org.phenopackets.schema.v2.Phenopacket;
+import org.phenopackets.schema.v2.core.Interpretation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * The data used by the benchmarks. The bundled ontology and annotations are small excerpts of the real-life files,
+ * hence the benchmarks run offline. The files are the test fixtures of <code>phenoimp-core</code>, copied into
+ * the benchmark classes by the build.
+ */
+public class Fixtures {
+
+    private static final String HPO_RESOURCE = "hpo_toy.json";
+    private static final String HPOA_RESOURCE = "phenotype.excerpt.hpoa";
+
+    private static final String DISEASE_ID = "OMIM:143890";
+    private static final String DISEASE_NAME = "Hypercholesterolemia, Familial, 1";
+    private static final String INDIVIDUAL_ID = "individual-id";
+
+    private Fixtures() {
+    }
+
+    /**
+     * Copy the bundled ontology and annotations into the {@code dataDirectory} using the file names
+     * expected in the PhenoImp data directory.
+     */
+    public static void copyDataDirectory(Path dataDirectory) {
+        try {
+            Files.createDirectories(dataDirectory);
+            copyResource(HPO_RESOURCE, dataDirectory.resolve("hp.json"));
+            copyResource(HPOA_RESOURCE, dataDirectory.resolve("phenotype.hpoa"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static Ontology loadHpo(Path dataDirectory) {
+        return OntologyLoader.loadOntology(dataDirectory.resolve("hp.json").toFile());
+    }
+
+    public static HpoDiseases loadDiseases(Ontology hpo, Path dataDirectory) {
+        HpoDiseaseLoader loader = HpoDiseaseLoaders.defaultLoader(hpo, HpoDiseaseLoaderOptions.defaultOptions());
+        try {
+            return loader.load(dataDirectory.resolve("phenotype.hpoa"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static void deleteDirectory(Path directory) {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList())
+                Files.delete(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return phenopacket with phenotypic abnormalities from the bundled ontology, a disease segregating
+     * with autosomal recessive mode of inheritance, and two variant interpretations.
+     */
+    public static Phenopacket phenopacket() {
+        return PhenopacketBuilder.create("benchmark", MetaDataBuilder.builder("HPO:benchmark").build())
+                .individual(IndividualBuilder.of(INDIVIDUAL_ID))
+                .addPhenotypicFeature(PhenotypicFeatureBuilder.builder("HP:0001166", "Arachnodactyly").build())
+                .addPhenotypicFeature(PhenotypicFeatureBuilder.builder("HP:0001238", "Slender finger").build())
+                .addPhenotypicFeature(PhenotypicFeatureBuilder.builder("HP:0001167", "Abnormality of finger").build())
+                .addPhenotypicFeature(PhenotypicFeatureBuilder.builder("HP:0002813", "Abnormality of limb bone morphology").build())
+                .addPhenotypicFeature(PhenotypicFeatureBuilder.builder("HP:0000924", "Abnormality of the skeletal system").build())
+                .addDisease(DiseaseBuilder.of(DISEASE_ID, DISEASE_NAME))
+                .addInterpretation(interpretation("first-interpretation-id", "VCV000251009", 11_100_236))
+                .addInterpretation(interpretation("second-interpretation-id", "VCV000251032", 11_100_293))
+                .build();
+    }
+
+    private static Interpretation interpretation(String id, String variantId, int position) {
+        return InterpretationBuilder.builder(id)
+                .solved(DiagnosisBuilder.builder(OntologyClassBuilder.ontologyClass(DISEASE_ID, DISEASE_NAME))
+                        .addGenomicInterpretation(GenomicInterpretationBuilder.builder(INDIVIDUAL_ID)
+                                .variantInterpretation(VariantInterpretationBuilder.builder(VariationDescriptorBuilder.builder(variantId)
+                                                .vcfHg38("chr19", position, "C", "A")
+                                                .heterozygous()
+                                                .build())
+                                        .pathogenic()
+                                        .build())
+                                .causative()
+                                .build())
+                        .build());
+    }
+
+    private static void copyResource(String name, Path target) throws IOException {
+        try (InputStream is = Fixtures.class.getResourceAsStream(name)) {
+            if (is == null)
+                throw new IOException("Missing benchmark resource %s".formatted(name));
+            Files.copy(is, target);
+        }
+    }
+}
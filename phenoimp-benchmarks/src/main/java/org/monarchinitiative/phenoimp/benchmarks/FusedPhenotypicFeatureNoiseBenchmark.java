@@ -0,0 +1,57 @@
+package org.monarchinitiative.phenoimp.benchmarks;
+
+import org.monarchinitiative.phenoimp.core.noise.util.AliasTermSampler;
+import org.monarchinitiative.phenoimp.core.noise.util.HpoIndex;
+import org.monarchinitiative.phenoimp.core.noise.v2.AddNRandomPhenotypeTerms;
+import org.monarchinitiative.phenoimp.core.noise.v2.FusedPhenotypicFeatureNoise;
+import org.monarchinitiative.phenoimp.core.noise.v2.ReplaceHpoWithParent;
+import org.openjdk.jmh.annotations.*;
+import org.phenopackets.schema.v2.Phenopacket;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Approximating the phenotypic features and adding 2 random terms, either by running the noises one after another
+ * or in a single pass. Run with <code>-prof gc</code> to compare the allocation rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FusedPhenotypicFeatureNoiseBenchmark {
+
+    private ReplaceHpoWithParent replaceHpoWithParent;
+    private AddNRandomPhenotypeTerms addNRandomPhenotypeTerms;
+    private FusedPhenotypicFeatureNoise fused;
+    private Phenopacket phenopacket;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Path dataDirectory = Files.createTempDirectory("phenoimp-benchmark");
+        Fixtures.copyDataDirectory(dataDirectory);
+        HpoIndex index = HpoIndex.of(Fixtures.loadHpo(dataDirectory));
+        Fixtures.deleteDirectory(dataDirectory);
+
+        replaceHpoWithParent = new ReplaceHpoWithParent(index, 1, 42L);
+        addNRandomPhenotypeTerms = new AddNRandomPhenotypeTerms(AliasTermSampler.uniform(index), 2, 42L);
+        fused = new FusedPhenotypicFeatureNoise(replaceHpoWithParent, addNRandomPhenotypeTerms, 42L);
+        phenopacket = Fixtures.phenopacket();
+        random = new Random(42L);
+    }
+
+    @Benchmark
+    public Phenopacket sequential() {
+        return addNRandomPhenotypeTerms.distort(replaceHpoWithParent.distort(phenopacket, random), random);
+    }
+
+    @Benchmark
+    public Phenopacket fused() {
+        return fused.distort(phenopacket, random);
+    }
+}
@@ -0,0 +1,47 @@
+package org.monarchinitiative.phenoimp.benchmarks;
+
+import org.monarchinitiative.phenoimp.configuration.HpoSnapshot;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading HPO from <code>hp.json</code> and from the snapshot written by the <code>index</code> command.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HpoLoadingBenchmark {
+
+    private Path dataDirectory;
+    private Path snapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataDirectory = Files.createTempDirectory("phenoimp-benchmark");
+        Fixtures.copyDataDirectory(dataDirectory);
+        snapshot = HpoSnapshot.index(dataDirectory);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Fixtures.deleteDirectory(dataDirectory);
+    }
+
+    @Benchmark
+    public Ontology loadJson() {
+        return Fixtures.loadHpo(dataDirectory);
+    }
+
+    @Benchmark
+    public HpoSnapshot readSnapshot() throws IOException {
+        return HpoSnapshot.read(snapshot);
+    }
+}
@@ -0,0 +1,43 @@
+package org.monarchinitiative.phenoimp.benchmarks;
+
+import com.google.protobuf.Message;
+import org.monarchinitiative.phenoimp.cli.io.PhenopacketFormat;
+import org.monarchinitiative.phenoimp.cli.io.PhenopacketReader;
+import org.monarchinitiative.phenoimp.cli.io.PhenopacketWriter;
+import org.openjdk.jmh.annotations.*;
+import org.phenopackets.schema.v2.Phenopacket;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and writing a phenopacket as JSON, including the detection of the phenopacket version.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PhenopacketJsonBenchmark {
+
+    private Phenopacket phenopacket;
+    private String json;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        phenopacket = Fixtures.phenopacket();
+        json = new String(PhenopacketWriter.encode(phenopacket, PhenopacketFormat.JSON), StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Message read() throws IOException {
+        return PhenopacketReader.parseJson(json);
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        return PhenopacketWriter.encode(phenopacket, PhenopacketFormat.JSON);
+    }
+}
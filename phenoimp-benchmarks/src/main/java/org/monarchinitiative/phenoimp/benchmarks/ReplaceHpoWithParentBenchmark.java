@@ -0,0 +1,49 @@
+package org.monarchinitiative.phenoimp.benchmarks;
+
+import org.monarchinitiative.phenoimp.core.noise.util.HpoIndex;
+import org.monarchinitiative.phenoimp.core.noise.v2.ReplaceHpoWithParent;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.openjdk.jmh.annotations.*;
+import org.phenopackets.schema.v2.Phenopacket;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replacing the phenotype terms with ancestors <code>nHops</code> upstream.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReplaceHpoWithParentBenchmark {
+
+    @Param({"1", "2"})
+    public int nHops;
+
+    private ReplaceHpoWithParent noise;
+    private Phenopacket phenopacket;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Path dataDirectory = Files.createTempDirectory("phenoimp-benchmark");
+        Fixtures.copyDataDirectory(dataDirectory);
+        Ontology hpo = Fixtures.loadHpo(dataDirectory);
+        Fixtures.deleteDirectory(dataDirectory);
+
+        HpoIndex hpoIndex = HpoIndex.of(hpo);
+        noise = new ReplaceHpoWithParent(hpoIndex, nHops, 42L);
+        phenopacket = Fixtures.phenopacket();
+        random = new Random(42L);
+    }
+
+    @Benchmark
+    public Phenopacket distort() {
+        return noise.distort(phenopacket, random);
+    }
+}
@@ -5,6 +5,7 @@ module org.monarchinitiative.phenoimp.cli {
     requires org.phenopackets.schema;
     requires com.google.protobuf.util;
     requires info.picocli;
+    requires jdk.httpserver;
     requires org.slf4j;
 
     opens org.monarchinitiative.phenoimp.cli.cmd to info.picocli;
@@ -2,6 +2,9 @@ package org.monarchinitiative.phenoimp.cli;
 
 import org.monarchinitiative.phenoimp.cli.cmd.DistortCommand;
 import org.monarchinitiative.phenoimp.cli.cmd.DownloadCommand;
+import org.monarchinitiative.phenoimp.cli.cmd.IndexCommand;
+import org.monarchinitiative.phenoimp.cli.cmd.ServeCommand;
+import org.monarchinitiative.phenoimp.cli.cmd.SweepCommand;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import picocli.CommandLine;
@@ -26,7 +29,10 @@ public class Main implements Callable<Integer> {
 
         CommandLine cline = new CommandLine(new Main())
                 .addSubcommand("download", new DownloadCommand())
-                .addSubcommand("distort", new DistortCommand());
+                .addSubcommand("index", new IndexCommand())
+                .addSubcommand("distort", new DistortCommand())
+                .addSubcommand("sweep", new SweepCommand())
+                .addSubcommand("serve", new ServeCommand());
         cline.setToggleBooleanFlags(false);
         long startTime = System.currentTimeMillis();
         int exitCode = cline.execute(args);
@@ -0,0 +1,646 @@
+package org.monarchinitiative.phenoimp.cli.cmd;
+
+import com.google.protobuf.Message;
+import org.monarchinitiative.phenoimp.cli.io.OutputCache;
+import org.monarchinitiative.phenoimp.cli.io.PhenopacketFormat;
+import org.monarchinitiative.phenoimp.cli.io.PhenopacketReader;
+import org.monarchinitiative.phenoimp.cli.io.PhenopacketRecordReader;
+import org.monarchinitiative.phenoimp.cli.io.PhenopacketWriter;
+import org.monarchinitiative.phenoimp.cli.io.RunManifest;
+import org.monarchinitiative.phenoimp.configuration.PhenoImpBuilder;
+import org.monarchinitiative.phenoimp.configuration.RandomTermDistribution;
+import org.monarchinitiative.phenoimp.core.PhenoImp;
+import org.monarchinitiative.phenoimp.core.PhenoImpRuntimeException;
+import org.monarchinitiative.phenoimp.core.metrics.DistortionMetrics;
+import org.monarchinitiative.phenoimp.core.runner.ParallelDistortionRunner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine;
+
+import java.io.*;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Base of the commands that read the input phenopackets, distort each phenopacket into one or more {@link Target}s,
+ * and write the distorted phenopackets.
+ */
+public abstract class BaseDistortCommand implements Callable<Integer> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BaseDistortCommand.class);
+    private static final Pattern INPUT_FILE_NAME = Pattern.compile("^(?<name>[\\w!@#$%^&*()_+-=\\[\\]{}:,.]+)\\.(json|pb|pbs|jsonl|ndjson)$");
+
+    @CommandLine.Option(names = {"-d", "--data"},
+            paramLabel = "path/to/datadir",
+            description = "Path to data directory prepared by `download` command (default: ${DEFAULT-VALUE}).")
+    public Path dataDirectory = Path.of("data");
+
+    @CommandLine.Option(names = {"--random-seed"},
+            paramLabel = "123",
+            description = "Seed for pseudorandom number generator (default: current UNIX epoch second).")
+    public Long randomSeed;
+
+    @CommandLine.Option(names = {"--random-term-distribution"},
+            paramLabel = "{UNIFORM, INFORMATION_CONTENT, ANNOTATION_FREQUENCY}",
+            description = "Distribution of the random phenotype terms. %n  INFORMATION_CONTENT favors the specific terms, %n  ANNOTATION_FREQUENCY favors the terms annotating many diseases (default: ${DEFAULT-VALUE}).")
+    public RandomTermDistribution randomTermDistribution = RandomTermDistribution.UNIFORM;
+
+    @CommandLine.Option(names = {"--replicates"},
+            paramLabel = "1",
+            description = "Number of distorted replicates of each phenopacket. %n  The replicates are written into files with `.r<N>` suffix and their seeds into `replicates.tsv` (default: ${DEFAULT-VALUE}).")
+    public int nReplicates = 1;
+
+    @CommandLine.Option(names = {"-i", "--input"},
+            arity = "1..*",
+            description = "Path(s) to input phenopacket(s) (v1 or v2), or to directories with phenopackets.")
+    public List<Path> inputs = List.of();
+
+    @CommandLine.Option(names = {"--input-format"},
+            paramLabel = "{JSON, PROTOBUF, DELIMITED, NDJSON, JSON_ARRAY}",
+            description = "Format of the input phenopackets. %n  DELIMITED file is a stream of length-delimited binary phenopackets, %n  NDJSON file has one phenopacket JSON per line, %n  JSON_ARRAY file is a JSON array of phenopackets (default: ${DEFAULT-VALUE}).")
+    public PhenopacketFormat inputFormat = PhenopacketFormat.JSON;
+
+    @CommandLine.Option(names = {"--glob"},
+            paramLabel = "*.json",
+            description = "Glob for selecting phenopackets from input directories (default: `*.json`, `*.pb`, `*.pbs`, or `*.jsonl`, based on the input format).")
+    public String glob = null;
+
+    @CommandLine.Option(names = {"--input-list"},
+            paramLabel = "path/to/paths.txt",
+            description = "Path to a file with paths to input phenopackets, one path per line.")
+    public Path inputList = null;
+
+    @CommandLine.Option(names = {"--output-format"},
+            paramLabel = "{JSON, PROTOBUF, DELIMITED, NDJSON}",
+            description = "Format of the distorted phenopackets (default: the input format, or NDJSON for JSON_ARRAY input).")
+    public PhenopacketFormat outputFormat = null;
+
+    @CommandLine.Option(names = {"--output-dir"},
+            paramLabel = "path/to/outdir",
+            description = "Directory for writing the distorted phenopackets (default: next to the input phenopackets).")
+    public Path outputDirectory = null;
+
+    @CommandLine.Option(names = {"-t", "--threads"},
+            paramLabel = "2",
+            description = "Number of threads for distorting the phenopackets (default: number of available processors).")
+    public int nThreads = Runtime.getRuntime().availableProcessors();
+
+    @CommandLine.Option(names = {"--cache-dir"},
+            paramLabel = "path/to/cache",
+            description = "Directory for caching the distorted phenopackets. A phenopacket is distorted again only if the input, %n  the noise settings, the random seed, or the data changed (default: no cache).")
+    public Path cacheDirectory = null;
+
+    @CommandLine.Option(names = {"--cache-size"},
+            paramLabel = "1024",
+            description = "Maximum size of the cache in MiB, the least recently used phenopackets are evicted (default: ${DEFAULT-VALUE}).")
+    public long cacheSize = 1024;
+
+    @CommandLine.Option(names = {"--manifest"},
+            paramLabel = "path/to/manifest.tsv",
+            description = "Path to a manifest of the written phenopackets, their checksums, and seeds. %n  A re-run with the same manifest and `--random-seed` skips the phenopackets written by the previous runs, %n  hence an interrupted run resumes where it stopped (default: no manifest).")
+    public Path manifestPath = null;
+
+    @Override
+    public Integer call() {
+        try {
+            // 0 - Resolve the input phenopackets.
+            if (nReplicates < 1) {
+                LOGGER.error("The number of replicates must be positive, got {}.", nReplicates);
+                return 1;
+            }
+            if (cacheDirectory != null && cacheSize < 1) {
+                LOGGER.error("The cache size must be positive, got {}.", cacheSize);
+                return 1;
+            }
+            PhenopacketFormat outFormat = outputFormat != null
+                    ? outputFormat
+                    : inputFormat.isWritable() ? inputFormat : PhenopacketFormat.NDJSON;
+            if (!outFormat.isWritable()) {
+                LOGGER.error("Cannot write phenopackets as {}, use {} output format.", outFormat, PhenopacketFormat.NDJSON);
+                return 1;
+            }
+            if (inputFormat.isStream() && !outFormat.isStream()) {
+                LOGGER.error("Cannot write phenopackets from {} input as {}, use {} or {} output format.", inputFormat, outFormat, PhenopacketFormat.DELIMITED, PhenopacketFormat.NDJSON);
+                return 1;
+            }
+            if (manifestPath != null && outFormat.isStream()) {
+                LOGGER.error("Cannot resume writing {} output with a manifest, use {} or {} output format.", outFormat, PhenopacketFormat.JSON, PhenopacketFormat.PROTOBUF);
+                return 1;
+            }
+            if (manifestPath != null && randomSeed == null)
+                LOGGER.warn("No `--random-seed` was provided, a re-run cannot resume from the manifest.");
+
+            // 1 - Start loading the data while the inputs are resolved.
+            DistortionMetrics metrics = new DistortionMetrics();
+            PhenoImpBuilder builder = PhenoImpBuilder.builder(dataDirectory)
+                    .randomTermDistribution(randomTermDistribution)
+                    .setRandomSeed(randomSeed)
+                    .metrics(metrics);
+            configure(builder);
+
+            String inputGlob = glob == null ? "*." + inputFormat.extension() : glob;
+            List<Path> phenopackets = resolveInputs(inputs, inputGlob, inputList);
+            if (phenopackets.isEmpty()) {
+                LOGGER.error("No input phenopackets found. Use `-i` or `--input-list` to provide the phenopackets.");
+                return 1;
+            }
+
+            // 2 - Bootstrap the runners, waiting for the data.
+            Map<Path, List<Target>> targets = prepareTargets(builder, phenopackets, outFormat);
+            Target first = targets.get(phenopackets.get(0)).get(0);
+
+            // 3 - Distort the phenopackets.
+            LOGGER.info("Distorting phenopackets from {} {} file(s) using {} thread(s).", phenopackets.size(), inputFormat, nThreads);
+            OutputCache cache = cacheDirectory == null ? null : OutputCache.open(cacheDirectory, cacheSize * 1024 * 1024);
+            DistortionMetrics.Stage parse = metrics.stage("parse");
+            DistortionMetrics.Stage write = metrics.stage(outFormat.isStream() ? "encode" : "write");
+            ResultWriter writer;
+            try (RunManifest manifest = manifestPath == null ? null : RunManifest.open(manifestPath, RunManifest.DEFAULT_FLUSH_EVERY);
+                 ParallelDistortionRunner runner = new ParallelDistortionRunner(first.phenoImp(), nThreads);
+                 InputRecords records = new InputRecords(phenopackets, inputFormat)) {
+                writer = new ResultWriter(manifest);
+                try (writer) {
+                    if (nReplicates > 1)
+                        writeReplicateSeeds(runner, nReplicates, outputDirectory == null ? first.output().toAbsolutePath().getParent() : outputDirectory);
+                    RecordDistorter distorter = new RecordDistorter(runner, inputFormat, outFormat, parse, write, cache, manifest);
+                    runner.run(records,
+                            record -> distorter.distort(record, targets.get(record.source())),
+                            writer);
+                }
+            }
+
+            LOGGER.info("Distortion metrics:{}{}", System.lineSeparator(), metrics.report());
+            if (cache != null)
+                LOGGER.info("Found {}/{} distorted phenopackets in the cache.", cache.hits(), cache.hits() + cache.misses());
+            if (manifestPath != null)
+                LOGGER.info("Resumed {} phenopackets written by the previous runs.", writer.resumed);
+
+            if (writer.failed > 0) {
+                LOGGER.error("Failed to distort {}/{} phenopacket(s).", writer.failed, writer.processed);
+                return 1;
+            }
+
+            LOGGER.info("We're done here, bye!");
+            return 0;
+        } catch (Exception e) {
+            LOGGER.error(e.getMessage(), e);
+            return 1;
+        }
+    }
+
+    /**
+     * Configure the {@code builder} with the noise options and start loading the data needed by the noise
+     * (see {@link PhenoImpBuilder#preload()}). Called before the input phenopackets are resolved.
+     */
+    protected void configure(PhenoImpBuilder builder) {
+    }
+
+    /**
+     * Configure the {@code builder}, build the distortion runners, and prepare the targets of each input phenopacket.
+     * The {@code builder} has the data directory and the random seed set.
+     */
+    protected abstract Map<Path, List<Target>> prepareTargets(PhenoImpBuilder builder,
+                                                              List<Path> phenopackets,
+                                                              PhenopacketFormat outputFormat) throws IOException;
+
+    /**
+     * Write the global seed of each replicate into {@code replicates.tsv}.
+     * A replicate is regenerated by running with the seed as the {@code --random-seed}.
+     */
+    private static void writeReplicateSeeds(ParallelDistortionRunner runner, int nReplicates, Path directory) throws IOException {
+        Path seeds = directory.resolve("replicates.tsv");
+        LOGGER.info("Writing seeds of {} replicates to {}", nReplicates, seeds);
+        try (BufferedWriter writer = Files.newBufferedWriter(seeds)) {
+            writer.write("replicate\trandom_seed");
+            writer.newLine();
+            for (int replicate = 0; replicate < nReplicates; replicate++) {
+                long seed = runner.replicateSeed(replicate);
+                LOGGER.debug("Replicate {} uses random seed {}", replicate, seed);
+                writer.write("%d\t%d".formatted(replicate, seed));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Collect paths to the input phenopackets. Directories are searched (non-recursively) for files
+     * matching the {@code glob}. The resulting paths are sorted to process the phenopackets in a stable order.
+     */
+    private static List<Path> resolveInputs(List<Path> inputs, String glob, Path inputList) throws IOException {
+        Set<Path> phenopackets = new TreeSet<>();
+        for (Path input : inputs) {
+            if (Files.isDirectory(input)) {
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(input, glob)) {
+                    for (Path path : stream) {
+                        if (Files.isRegularFile(path))
+                            phenopackets.add(path);
+                    }
+                }
+            } else {
+                phenopackets.add(input);
+            }
+        }
+
+        if (inputList != null) {
+            LOGGER.info("Reading paths to input phenopackets from {}", inputList.toAbsolutePath());
+            try (BufferedReader reader = Files.newBufferedReader(inputList)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.strip();
+                    if (line.isEmpty() || line.startsWith("#"))
+                        continue;
+                    phenopackets.add(Path.of(line));
+                }
+            }
+        }
+
+        return List.copyOf(phenopackets);
+    }
+
+    /**
+     * Prepare the output path of each input phenopacket, either next to the input or in the {@code outputDirectory}.
+     *
+     * @throws PhenoImpRuntimeException if more than one input would be written into the same path.
+     */
+    protected static Map<Path, Path> prepareOutputPaths(List<Path> phenopackets,
+                                                        Path outputDirectory,
+                                                        PhenopacketFormat outputFormat) throws IOException {
+        if (outputDirectory != null)
+            Files.createDirectories(outputDirectory);
+
+        Map<Path, Path> outputs = new HashMap<>();
+        Set<Path> seen = new HashSet<>();
+        for (Path phenopacket : phenopackets) {
+            Path out = prepareOutputPath(phenopacket, outputDirectory, outputFormat);
+            if (!seen.add(out))
+                throw new PhenoImpRuntimeException("More than one input phenopacket would be written into %s".formatted(out.toAbsolutePath()));
+            outputs.put(phenopacket, out);
+        }
+        return outputs;
+    }
+
+    private static Path prepareOutputPath(Path phenopacket, Path outputDirectory, PhenopacketFormat outputFormat) {
+        String name = phenopacket.toFile().getName();
+        Matcher matcher = INPUT_FILE_NAME.matcher(name);
+        String base;
+        if (matcher.matches()) {
+            base = matcher.group("name");
+        } else {
+            throw new PhenoImpRuntimeException("The input file name '%s' does not match '%s' pattern!".formatted(phenopacket.toAbsolutePath(), INPUT_FILE_NAME.pattern()));
+        }
+        Path parent = outputDirectory == null
+                ? phenopacket.toAbsolutePath().getParent()
+                : outputDirectory;
+        return parent.resolve("%s.distorted.%s".formatted(base, outputFormat.extension()));
+    }
+
+    /**
+     * Get a target for each replicate of the {@code phenoImp}. The replicate number is inserted before the file name
+     * extension if there is more than one replicate, e.g. {@code input.distorted.json} -> {@code input.distorted.r0.json}.
+     */
+    protected static List<Target> replicateTargets(PhenoImp phenoImp, Path output, int nReplicates) {
+        if (nReplicates == 1)
+            return List.of(new Target(phenoImp, 0, output));
+
+        String name = output.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+        List<Target> targets = new ArrayList<>(nReplicates);
+        for (int replicate = 0; replicate < nReplicates; replicate++)
+            targets.add(new Target(phenoImp, replicate, output.resolveSibling("%s.r%d%s".formatted(base, replicate, extension))));
+        return targets;
+    }
+
+    /**
+     * Write the {@code replicate} of a phenopacket distorted by the {@code phenoImp} into the {@code output}.
+     */
+    protected record Target(PhenoImp phenoImp, int replicate, Path output) {
+    }
+
+    /**
+     * A phenopacket to distort. The phenopacket is either stored in the {@code source} file,
+     * or it is the {@code index}-th record of the {@code source} stream.
+     */
+    private record InputRecord(Path source, int index, byte[] payload) {
+
+        /**
+         * @return the file name of the source, which seeds the phenopackets with a blank ID along with the index.
+         */
+        private String name() {
+            return String.valueOf(source.getFileName());
+        }
+
+        @Override
+        public String toString() {
+            return payload == null
+                    ? source.toAbsolutePath().toString()
+                    : "record #%d of %s".formatted(index, source.toAbsolutePath());
+        }
+    }
+
+    /**
+     * @param outputs the output path of each target.
+     * @param data the encoded targets to append to the {@code outputs} streams or {@code null} if there is nothing to write.
+     * @param entries the manifest entries of the targets written in this run.
+     * @param resumed the number of the targets written by the previous runs.
+     */
+    private record Distorted(boolean success, List<Path> outputs, List<byte[]> data, List<RunManifest.Entry> entries, int resumed) {
+    }
+
+    /**
+     * Distorts a phenopacket into the targets. The phenopacket is parsed once, or not at all if the targets
+     * were written by the previous runs recorded in the {@code manifest} or if the {@code cache} has
+     * the distorted phenopackets. Phenopackets for a stream are encoded and left to be written in order
+     * by {@link ResultWriter}, other phenopackets are written right away. The latencies of parsing
+     * and of encoding or writing are recorded into the {@code parse} and {@code write} stages.
+     */
+    private static class RecordDistorter {
+
+        private static final String VERSION = String.valueOf(BaseDistortCommand.class.getPackage().getImplementationVersion());
+
+        private final ParallelDistortionRunner runner;
+        private final PhenopacketFormat inputFormat;
+        private final PhenopacketFormat outputFormat;
+        private final DistortionMetrics.Stage parse;
+        private final DistortionMetrics.Stage write;
+        private final OutputCache cache;
+        private final RunManifest manifest;
+
+        private RecordDistorter(ParallelDistortionRunner runner,
+                                PhenopacketFormat inputFormat,
+                                PhenopacketFormat outputFormat,
+                                DistortionMetrics.Stage parse,
+                                DistortionMetrics.Stage write,
+                                OutputCache cache,
+                                RunManifest manifest) {
+            this.runner = runner;
+            this.inputFormat = inputFormat;
+            this.outputFormat = outputFormat;
+            this.parse = parse;
+            this.write = write;
+            this.cache = cache;
+            this.manifest = manifest;
+        }
+
+        private Distorted distort(InputRecord record, List<Target> targets) {
+            List<Path> outputs = targets.stream().map(Target::output).toList();
+            List<RunManifest.Entry> entries = manifest == null ? List.of() : new ArrayList<>(targets.size());
+            String checksum = null;
+            int resumed = 0;
+            int completed = 0;
+            try {
+                // 0 - Read input phenopacket, it is parsed on the first target that has to be distorted.
+                byte[] input = record.payload();
+                if (input == null && (cache != null || manifest != null))
+                    input = Files.readAllBytes(record.source());
+                if (manifest != null)
+                    checksum = RunManifest.checksum(input);
+                Message pp = null;
+
+                List<byte[]> data = outputFormat.isStream() ? new ArrayList<>(targets.size()) : null;
+                for (Target target : targets) {
+                    Optional<String> fingerprint = target.phenoImp().fingerprint();
+                    String config = manifest == null ? null : configKey(fingerprint, target);
+                    if (config != null && manifest.isComplete(target.output(), checksum, config)) {
+                        LOGGER.debug("Skipping {} written by a previous run", target.output().toAbsolutePath());
+                        resumed++;
+                        completed++;
+                        continue;
+                    }
+
+                    String key = cache == null ? null : cacheKey(record, input, fingerprint, target);
+                    byte[] encoded = key == null ? null : cache.get(key);
+                    Long seed = null;
+                    if (encoded == null) {
+                        if (pp == null) {
+                            long start = parse.start();
+                            pp = input == null
+                                    ? PhenopacketReader.readPhenopacket(record.source(), inputFormat)
+                                    : PhenopacketReader.parse(input, inputFormat);
+                            parse.stop(start);
+                        }
+
+                        // 1 - Distort the phenopacket.
+                        seed = runner.randomSeed(pp, target.replicate(), record.name(), record.index());
+                        Message distorted = runner.distort(target.phenoImp(), pp, target.replicate(), record.name(), record.index());
+
+                        long start = write.start();
+                        encoded = PhenopacketWriter.encode(distorted, outputFormat);
+                        write.stop(start);
+                        if (key != null)
+                            cache.put(key, encoded);
+                    }
+
+                    // 2 - Write out the distorted phenopacket.
+                    if (outputFormat.isStream()) {
+                        data.add(encoded);
+                    } else {
+                        LOGGER.debug("Writing distorted phenopacket to {}", target.output().toAbsolutePath());
+                        long start = write.start();
+                        Files.write(target.output(), encoded);
+                        write.stop(start);
+                    }
+                    if (manifest != null)
+                        entries.add(new RunManifest.Entry(record.source(), checksum, config, seed, target.output(), RunManifest.checksum(encoded), RunManifest.Status.OK));
+                    completed++;
+                }
+                return new Distorted(true, outputs, data, entries, resumed);
+            } catch (Exception e) {
+                LOGGER.error("Error while distorting {}: {}", record, e.getMessage(), e);
+                if (manifest != null) {
+                    for (Target target : targets.subList(completed, targets.size()))
+                        entries.add(new RunManifest.Entry(record.source(), checksum, null, null, target.output(), null, RunManifest.Status.FAILED));
+                }
+                return new Distorted(false, outputs, null, entries, resumed);
+            }
+        }
+
+        /**
+         * Get the key of the {@code target} of the {@code input} phenopacket in the output cache.
+         *
+         * @return the key or {@code null} if the output of the target should not be cached.
+         */
+        private String cacheKey(InputRecord record, byte[] input, Optional<String> fingerprint, Target target) {
+            if (fingerprint.isEmpty())
+                return null;
+            // The phenopacket seed is derived from the replicate seed and the phenopacket ID, hence from the input bytes,
+            // or from the record name and index if the ID is blank.
+            return OutputCache.key()
+                    .add(VERSION)
+                    .add(inputFormat.name())
+                    .add(input)
+                    .add(record.name())
+                    .add(record.index())
+                    .add(fingerprint.get())
+                    .add(runner.replicateSeed(target.replicate()))
+                    .add(outputFormat.name())
+                    .build();
+        }
+
+        /**
+         * Get the key of everything but the input phenopacket that the output of the {@code target} depends on,
+         * to be recorded in the manifest.
+         *
+         * @return the key or {@code null} if the output of the target cannot be resumed.
+         */
+        private String configKey(Optional<String> fingerprint, Target target) {
+            if (fingerprint.isEmpty())
+                return null;
+            return OutputCache.key()
+                    .add(VERSION)
+                    .add(inputFormat.name())
+                    .add(fingerprint.get())
+                    .add(runner.replicateSeed(target.replicate()))
+                    .add(outputFormat.name())
+                    .build()
+                    .substring(0, 16);
+        }
+    }
+
+    /**
+     * Iterates over the phenopackets of the input files, reading the stream records lazily.
+     */
+    private static class InputRecords implements Iterator<InputRecord>, Closeable {
+
+        private final Iterator<Path> files;
+        private final PhenopacketFormat format;
+        private Path source = null;
+        private PhenopacketRecordReader reader = null;
+        private int index = 0;
+        private InputRecord next = null;
+
+        private InputRecords(List<Path> files, PhenopacketFormat format) {
+            this.files = files.iterator();
+            this.format = format;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null)
+                next = advance();
+            return next != null;
+        }
+
+        @Override
+        public InputRecord next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            InputRecord record = next;
+            next = null;
+            return record;
+        }
+
+        private InputRecord advance() {
+            if (!format.isStream())
+                return files.hasNext() ? new InputRecord(files.next(), 0, null) : null;
+
+            try {
+                while (true) {
+                    if (reader != null) {
+                        byte[] payload = reader.next();
+                        if (payload != null)
+                            return new InputRecord(source, index++, payload);
+                        reader.close();
+                        reader = null;
+                    }
+                    if (!files.hasNext())
+                        return null;
+                    source = files.next();
+                    index = 0;
+                    LOGGER.debug("Reading phenopackets from {}", source.toAbsolutePath());
+                    reader = PhenopacketRecordReader.of(source, format);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error while reading %s".formatted(source.toAbsolutePath()), e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (reader != null)
+                reader.close();
+        }
+    }
+
+    /**
+     * Writes the encoded phenopackets into the output streams, appends the entries to the manifest,
+     * counts the processed phenopackets, and reports the progress. The results arrive in the order of the inputs,
+     * hence the phenopackets of the output streams arrive one after another.
+     */
+    private static class ResultWriter implements Consumer<Distorted>, Closeable {
+
+        private final RunManifest manifest;
+        private int processed = 0;
+        private int failed = 0;
+        private int resumed = 0;
+        private List<Path> outputs = List.of();
+        private final List<OutputStream> streams = new ArrayList<>();
+
+        private ResultWriter(RunManifest manifest) {
+            this.manifest = manifest;
+        }
+
+        @Override
+        public void accept(Distorted distorted) {
+            if (!distorted.success())
+                failed++;
+            resumed += distorted.resumed();
+            if (manifest != null) {
+                try {
+                    for (RunManifest.Entry entry : distorted.entries())
+                        manifest.append(entry);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Error while writing %s".formatted(manifest.path().toAbsolutePath()), e);
+                }
+            }
+            if (distorted.data() != null) {
+                Path current = null;
+                try {
+                    if (!distorted.outputs().equals(outputs)) {
+                        close();
+                        outputs = distorted.outputs();
+                        for (Path output : outputs) {
+                            current = output;
+                            LOGGER.debug("Writing distorted phenopackets to {}", output.toAbsolutePath());
+                            streams.add(new BufferedOutputStream(Files.newOutputStream(output)));
+                        }
+                    }
+                    for (int i = 0; i < streams.size(); i++) {
+                        current = outputs.get(i);
+                        streams.get(i).write(distorted.data().get(i));
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Error while writing %s".formatted(current == null ? "output" : current.toAbsolutePath()), e);
+                }
+            }
+            if (++processed % 1000 == 0)
+                LOGGER.info("Processed {} phenopackets", processed);
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOException error = null;
+            for (OutputStream os : streams) {
+                try {
+                    os.close();
+                } catch (IOException e) {
+                    if (error == null)
+                        error = e;
+                    else
+                        error.addSuppressed(e);
+                }
+            }
+            streams.clear();
+            outputs = List.of();
+            if (error != null)
+                throw error;
+        }
+    }
+}
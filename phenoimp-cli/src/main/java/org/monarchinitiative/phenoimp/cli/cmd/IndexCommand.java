@@ -0,0 +1,35 @@
+package org.monarchinitiative.phenoimp.cli.cmd;
+
+import org.monarchinitiative.phenoimp.configuration.HpoSnapshot;
+import org.monarchinitiative.phenoimp.core.PhenoImpRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+
+@CommandLine.Command(name = "index",
+        mixinStandardHelpOptions = true,
+        description = "Precompile HPO into a binary snapshot that is loaded without parsing hp.json.")
+public class IndexCommand implements Callable<Integer> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IndexCommand.class);
+
+    @CommandLine.Option(names = {"-d", "--data"},
+            description = "Path to PhenoImp data directory (default: ${DEFAULT-VALUE}).")
+    public Path datadir = Path.of("data");
+
+    @Override
+    public Integer call() {
+        try {
+            Path snapshot = HpoSnapshot.index(datadir);
+            LOGGER.info("HPO snapshot is available at {}", snapshot.toAbsolutePath());
+            return 0;
+        } catch (IOException | PhenoImpRuntimeException e) {
+            LOGGER.error("Unable to index HPO: {}", e.getMessage(), e);
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package org.monarchinitiative.phenoimp.cli.cmd;
+
+import org.monarchinitiative.phenoimp.cli.server.DistortionServer;
+import org.monarchinitiative.phenoimp.configuration.PhenoImpBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine;
+
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+
+@CommandLine.Command(name = "serve",
+        mixinStandardHelpOptions = true,
+        sortOptions = false,
+        description = "Distort phenopackets sent over HTTP, with the data loaded once.")
+public class ServeCommand implements Callable<Integer> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ServeCommand.class);
+
+    @CommandLine.Option(names = {"-d", "--data"},
+            paramLabel = "path/to/datadir",
+            description = "Path to data directory prepared by `download` command (default: ${DEFAULT-VALUE}).")
+    public Path dataDirectory = Path.of("data");
+
+    @CommandLine.Option(names = {"--host"},
+            paramLabel = "127.0.0.1",
+            description = "Address to listen on (default: ${DEFAULT-VALUE}).")
+    public String host = "127.0.0.1";
+
+    @CommandLine.Option(names = {"-p", "--port"},
+            paramLabel = "8080",
+            description = "Port to listen on, `0` for any free port (default: ${DEFAULT-VALUE}).")
+    public int port = 8080;
+
+    @CommandLine.Option(names = {"-t", "--threads"},
+            paramLabel = "2",
+            description = "Number of threads for distorting the phenopackets (default: number of available processors).")
+    public int nThreads = Runtime.getRuntime().availableProcessors();
+
+    @CommandLine.Option(names = {"--queue-size"},
+            paramLabel = "64",
+            description = "Number of requests waiting for a free thread, further requests are answered with 503 (default: ${DEFAULT-VALUE}).")
+    public int queueSize = 64;
+
+    @CommandLine.Option(names = {"--max-body-size"},
+            paramLabel = "16777216",
+            description = "Maximum size of a request body in bytes, larger requests are answered with 413 (default: ${DEFAULT-VALUE}).")
+    public int maxBodySize = DistortionServer.DEFAULT_MAX_BODY_SIZE;
+
+    @CommandLine.Option(names = {"--max-configs"},
+            paramLabel = "64",
+            description = "Number of noise configurations to keep built (default: ${DEFAULT-VALUE}).")
+    public int maxConfigs = 64;
+
+    @Override
+    public Integer call() {
+        try {
+            PhenoImpBuilder builder = PhenoImpBuilder.builder(dataDirectory);
+
+            CountDownLatch stopped = new CountDownLatch(1);
+            DistortionServer server = new DistortionServer(builder, new InetSocketAddress(host, port), nThreads, queueSize, maxConfigs, maxBodySize);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                LOGGER.info("Stopping the server");
+                server.close();
+                stopped.countDown();
+            }));
+            server.start();
+            stopped.await();
+            return 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        } catch (Exception e) {
+            LOGGER.error(e.getMessage(), e);
+            return 1;
+        }
+    }
+}
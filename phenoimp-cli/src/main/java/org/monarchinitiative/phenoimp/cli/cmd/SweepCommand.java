@@ -0,0 +1,127 @@
+package org.monarchinitiative.phenoimp.cli.cmd;
+
+import org.monarchinitiative.phenoimp.cli.io.PhenopacketFormat;
+import org.monarchinitiative.phenoimp.configuration.PhenoImpBuilder;
+import org.monarchinitiative.phenoimp.core.PhenoImp;
+import org.monarchinitiative.phenoimp.core.PhenoImpRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Distort the phenopackets using each cell of a grid of noise settings. The ontology is loaded and the distortion
+ * runners are built once, and each phenopacket is parsed once and distorted by all cells.
+ */
+@CommandLine.Command(name = "sweep",
+        mixinStandardHelpOptions = true,
+        sortOptions = false,
+        description = "Distort phenopackets using each combination of the noise settings.")
+public class SweepCommand extends BaseDistortCommand {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SweepCommand.class);
+
+    @CommandLine.Option(names = {"--add-n-random-terms"},
+            paramLabel = "0..10",
+            split = ",",
+            description = "Numbers of random phenotype terms to add, as a list of numbers or inclusive ranges %n  (e.g. `0,2,5` or `0..10`, default: ${DEFAULT-VALUE}).")
+    public List<String> nRandomTerms = List.of("0");
+
+    @CommandLine.Option(names = {"--drop-ar-variant"},
+            paramLabel = "false,true",
+            split = ",",
+            arity = "1",
+            description = "Whether to drop one of variant interpretations associated with disease with autosomal recessive inheritance (default: ${DEFAULT-VALUE}).")
+    public List<Boolean> dropVariantInAutosomalRecessiveCase = List.of(false);
+
+    @CommandLine.Option(names = {"--approximate"},
+            paramLabel = "OFF,PARENT,GRANDPARENT",
+            split = ",",
+            description = "Replace each phenotype term with its parent or grandparent (default: ${DEFAULT-VALUE}).")
+    public List<DistortCommand.TermApproximation> ancestors = List.of(DistortCommand.TermApproximation.OFF);
+
+    /**
+     * Start loading the data needed by any cell of the grid.
+     */
+    @Override
+    protected void configure(PhenoImpBuilder builder) {
+        int maxHops = ancestors.stream().mapToInt(DistortCommand.TermApproximation::nHops).max().orElse(0);
+        int maxCount = parseCounts(nRandomTerms).stream().mapToInt(Integer::intValue).max().orElse(0);
+        builder.nHopsForTermGeneralization(maxHops)
+                .addNRandomPhenotypeTerms(maxCount)
+                .dropOneOfTwoRecessiveVariants(dropVariantInAutosomalRecessiveCase.contains(true))
+                .preload();
+    }
+
+    @Override
+    protected Map<Path, List<Target>> prepareTargets(PhenoImpBuilder builder,
+                                                     List<Path> phenopackets,
+                                                     PhenopacketFormat outputFormat) throws IOException {
+        if (outputDirectory == null)
+            throw new PhenoImpRuntimeException("The `--output-dir` option is required for the sweep.");
+
+        List<Integer> counts = parseCounts(nRandomTerms);
+        Map<Path, List<Target>> targets = new HashMap<>();
+        for (Path phenopacket : phenopackets)
+            targets.put(phenopacket, new ArrayList<>());
+
+        int nCells = 0;
+        for (DistortCommand.TermApproximation ancestor : new LinkedHashSet<>(ancestors)) {
+            for (int count : counts) {
+                for (boolean dropArVariant : new LinkedHashSet<>(dropVariantInAutosomalRecessiveCase)) {
+                    // The builder shares the ontology and the other artifacts among the cells.
+                    PhenoImp phenoImp = builder.nHopsForTermGeneralization(ancestor.nHops())
+                            .addNRandomPhenotypeTerms(count)
+                            .dropOneOfTwoRecessiveVariants(dropArVariant)
+                            .build();
+
+                    Path cellDirectory = outputDirectory.resolve("approximate=" + ancestor)
+                            .resolve("add-n-random-terms=" + count)
+                            .resolve("drop-ar-variant=" + dropArVariant);
+                    Map<Path, Path> outputs = prepareOutputPaths(phenopackets, cellDirectory, outputFormat);
+                    for (Map.Entry<Path, Path> e : outputs.entrySet())
+                        targets.get(e.getKey()).addAll(replicateTargets(phenoImp, e.getValue(), nReplicates));
+                    nCells++;
+                }
+            }
+        }
+        LOGGER.info("Distorting each phenopacket using {} grid cell(s).", nCells);
+        return targets;
+    }
+
+    /**
+     * Parse the numbers of random terms. Each value is either a non-negative number or an inclusive range,
+     * such as {@code 0..10}. Duplicates are removed, and the order of the first occurrences is kept.
+     */
+    private static List<Integer> parseCounts(List<String> values) {
+        Set<Integer> counts = new LinkedHashSet<>();
+        for (String value : values) {
+            String v = value.strip();
+            try {
+                int range = v.indexOf("..");
+                if (range < 0) {
+                    counts.add(checkCount(Integer.parseInt(v), value));
+                } else {
+                    int start = checkCount(Integer.parseInt(v.substring(0, range).strip()), value);
+                    int end = checkCount(Integer.parseInt(v.substring(range + 2).strip()), value);
+                    if (end < start)
+                        throw new PhenoImpRuntimeException("Invalid range of random phenotype terms '%s'".formatted(value));
+                    for (int i = start; i <= end; i++)
+                        counts.add(i);
+                }
+            } catch (NumberFormatException e) {
+                throw new PhenoImpRuntimeException("Invalid number of random phenotype terms '%s'".formatted(value), e);
+            }
+        }
+        return List.copyOf(counts);
+    }
+
+    private static int checkCount(int count, String value) {
+        if (count < 0)
+            throw new PhenoImpRuntimeException("Number of random phenotype terms must be non-negative, got '%s'".formatted(value));
+        return count;
+    }
+}
@@ -0,0 +1,46 @@
+package org.monarchinitiative.phenoimp.cli.io;
+
+import com.google.protobuf.CodedInputStream;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Read the records of a {@link PhenopacketFormat#DELIMITED} stream, one record at a time.
+ */
+public class DelimitedPhenopacketReader implements PhenopacketRecordReader {
+
+    private final InputStream input;
+
+    public DelimitedPhenopacketReader(Path path) throws IOException {
+        this(new BufferedInputStream(Files.newInputStream(path)));
+    }
+
+    public DelimitedPhenopacketReader(InputStream input) {
+        this.input = input;
+    }
+
+    /**
+     * @throws EOFException if the stream ends in the middle of a record.
+     */
+    @Override
+    public byte[] next() throws IOException {
+        int firstByte = input.read();
+        if (firstByte == -1)
+            return null;
+
+        int size = CodedInputStream.readRawVarint32(firstByte, input);
+        if (size < 0)
+            throw new IOException("Negative record size %d".formatted(size));
+        byte[] record = input.readNBytes(size);
+        if (record.length != size)
+            throw new EOFException("Expected a record of %d bytes but the stream ended after %d bytes".formatted(size, record.length));
+        return record;
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
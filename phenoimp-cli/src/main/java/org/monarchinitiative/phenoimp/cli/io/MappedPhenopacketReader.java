@@ -0,0 +1,204 @@
+package org.monarchinitiative.phenoimp.cli.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read the records of a {@link PhenopacketFormat#NDJSON} or a {@link PhenopacketFormat#JSON_ARRAY} file
+ * by memory-mapping the file.
+ * <p>
+ * The record boundaries are found by scanning the mapped bytes in place, and only the bytes of each record
+ * are copied out of the OS page cache. The file is mapped in windows of up to {@link #DEFAULT_WINDOW_SIZE} bytes,
+ * hence the files larger than the heap, or than the 2 GiB limit of a single mapping, can be read.
+ * <p>
+ * The records of a JSON array are the top-level objects of the array. The JSON inside the records is not validated,
+ * that is left to the parser.
+ */
+public class MappedPhenopacketReader implements PhenopacketRecordReader {
+
+    static final long DEFAULT_WINDOW_SIZE = 1L << 30;
+
+    private final FileChannel channel;
+    private final long size;
+    private final long windowSize;
+    private final boolean array;
+    private MappedByteBuffer window = null;
+    private long windowStart = 0;
+    private long windowEnd = 0;
+    // Position of the first byte that was not returned yet.
+    private long position = 0;
+    // Start of the record being scanned, the window is mapped from the start if the record fits into the window.
+    private long mark = 0;
+    // The opening bracket of the array was consumed.
+    private boolean started = false;
+    // A record of the array was returned, the next one must follow a comma.
+    private boolean afterRecord = false;
+
+    public static MappedPhenopacketReader ndjson(Path path) throws IOException {
+        return new MappedPhenopacketReader(path, false, DEFAULT_WINDOW_SIZE);
+    }
+
+    public static MappedPhenopacketReader jsonArray(Path path) throws IOException {
+        return new MappedPhenopacketReader(path, true, DEFAULT_WINDOW_SIZE);
+    }
+
+    MappedPhenopacketReader(Path path, boolean array, long windowSize) throws IOException {
+        if (windowSize < 1 || windowSize > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Window size must be in [1, %d], got %d".formatted(Integer.MAX_VALUE, windowSize));
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.windowSize = windowSize;
+        this.array = array;
+    }
+
+    @Override
+    public byte[] next() throws IOException {
+        return array ? nextArrayRecord() : nextLine();
+    }
+
+    /**
+     * @return the next non-blank line or <code>null</code> if the end of the file was reached.
+     */
+    private byte[] nextLine() throws IOException {
+        while (position < size) {
+            long start = position;
+            mark = start;
+            long end = start;
+            boolean blank = true;
+            byte b;
+            while (end < size && (b = at(end)) != '\n') {
+                if (blank && !isWhitespace(b))
+                    blank = false;
+                end++;
+            }
+            // Skip the newline.
+            position = end + 1;
+            if (!blank)
+                return copy(start, end);
+        }
+        return null;
+    }
+
+    /**
+     * @return the next object of the array or <code>null</code> if the end of the array was reached.
+     */
+    private byte[] nextArrayRecord() throws IOException {
+        if (!started) {
+            position = skipWhitespace(position);
+            if (position == size)
+                // An empty file has no phenopackets.
+                return null;
+            if (at(position) != '[')
+                throw new IOException("Expected a JSON array at byte %d".formatted(position));
+            position++;
+            started = true;
+        }
+
+        position = skipWhitespace(position);
+        if (position == size)
+            throw new EOFException("The JSON array is not closed");
+        byte b = at(position);
+        if (b == ']') {
+            position = size;
+            return null;
+        }
+        if (afterRecord) {
+            if (b != ',')
+                throw new IOException("Expected ',' or ']' at byte %d".formatted(position));
+            position = skipWhitespace(position + 1);
+            if (position == size)
+                throw new EOFException("The JSON array is not closed");
+            b = at(position);
+        }
+        if (b != '{')
+            throw new IOException("Expected a phenopacket object at byte %d".formatted(position));
+
+        long start = position;
+        mark = start;
+        long end = objectEnd(start);
+        position = end;
+        afterRecord = true;
+        return copy(start, end);
+    }
+
+    /**
+     * @return the position after the closing brace of the object starting at <code>start</code>.
+     */
+    private long objectEnd(long start) throws IOException {
+        int depth = 0;
+        boolean inString = false;
+        for (long p = start; p < size; p++) {
+            byte b = at(p);
+            if (inString) {
+                if (b == '\\')
+                    // Skip the escaped character, e.g. a quote.
+                    p++;
+                else if (b == '"')
+                    inString = false;
+            } else if (b == '"') {
+                inString = true;
+            } else if (b == '{' || b == '[') {
+                depth++;
+            } else if (b == '}' || b == ']') {
+                if (--depth == 0)
+                    return p + 1;
+            }
+        }
+        throw new EOFException("The phenopacket starting at byte %d is not closed".formatted(start));
+    }
+
+    private long skipWhitespace(long p) throws IOException {
+        while (p < size && (isWhitespace(at(p)) || at(p) == '\n'))
+            p++;
+        return p;
+    }
+
+    private byte at(long p) throws IOException {
+        if (p < windowStart || p >= windowEnd)
+            map(p);
+        return window.get((int) (p - windowStart));
+    }
+
+    /**
+     * Copy the bytes from <code>start</code> (inclusive) to <code>end</code> (exclusive), which may span
+     * more than one window.
+     */
+    private byte[] copy(long start, long end) throws IOException {
+        long length = end - start;
+        if (length > Integer.MAX_VALUE - 8)
+            throw new IOException("The phenopacket starting at byte %d is too large (%d bytes)".formatted(start, length));
+        byte[] record = new byte[(int) length];
+        int copied = 0;
+        while (copied < record.length) {
+            long p = start + copied;
+            if (p < windowStart || p >= windowEnd)
+                map(p);
+            int n = (int) Math.min(record.length - copied, windowEnd - p);
+            window.get((int) (p - windowStart), record, copied, n);
+            copied += n;
+        }
+        return record;
+    }
+
+    private void map(long p) throws IOException {
+        // Map the record as a whole, hence the record is copied out of a single window.
+        windowStart = mark <= p && p - mark < windowSize ? mark : p;
+        windowEnd = Math.min(size, windowStart + windowSize);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowEnd - windowStart);
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    @Override
+    public void close() throws IOException {
+        // The mapping is released when the buffer is garbage collected.
+        window = null;
+        channel.close();
+    }
+}
@@ -0,0 +1,80 @@
+package org.monarchinitiative.phenoimp.cli.io;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Read the records of a {@link PhenopacketFormat#NDJSON} stream, one line at a time. Blank lines are skipped.
+ * <p>
+ * The lines are returned as UTF-8 bytes, to decode the JSON on the thread that parses the phenopacket.
+ */
+public class NdjsonPhenopacketReader implements PhenopacketRecordReader {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final InputStream input;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int pos = 0;
+    private int limit = 0;
+    private byte[] line = new byte[BUFFER_SIZE];
+
+    public NdjsonPhenopacketReader(Path path) throws IOException {
+        this(Files.newInputStream(path));
+    }
+
+    public NdjsonPhenopacketReader(InputStream input) {
+        this.input = input;
+    }
+
+    @Override
+    public byte[] next() throws IOException {
+        while (true) {
+            int length = 0;
+            boolean blank = true;
+            boolean eof = false;
+            while (true) {
+                if (pos == limit) {
+                    limit = input.read(buffer);
+                    pos = 0;
+                    if (limit == -1) {
+                        limit = 0;
+                        eof = true;
+                        break;
+                    }
+                }
+                // Copy up to the end of the line or of the buffer.
+                int start = pos;
+                while (pos < limit && buffer[pos] != '\n') {
+                    if (blank && !isWhitespace(buffer[pos]))
+                        blank = false;
+                    pos++;
+                }
+                int n = pos - start;
+                if (length + n > line.length)
+                    line = Arrays.copyOf(line, Math.max(line.length * 2, length + n));
+                System.arraycopy(buffer, start, line, length, n);
+                length += n;
+                if (pos < limit) {
+                    // Skip the newline.
+                    pos++;
+                    break;
+                }
+            }
+            if (!blank)
+                return Arrays.copyOf(line, length);
+            if (eof)
+                return null;
+        }
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
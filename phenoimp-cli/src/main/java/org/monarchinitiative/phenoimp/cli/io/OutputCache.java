@@ -0,0 +1,271 @@
+package org.monarchinitiative.phenoimp.cli.io;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * On-disk cache of the encoded distorted phenopackets, addressed by a SHA-256 key of everything the output depends on.
+ * <p>
+ * Each entry is stored in its own file named by the key. The total size of the entries is capped, and the least
+ * recently used entries are evicted when a new entry does not fit. The recency is persisted as the modification time
+ * of the entry, hence it survives between the runs. The entries are written into a temporary file and moved
+ * into place, a reader never sees a partially written entry.
+ * <p>
+ * The class is thread-safe, as long as a single process uses the cache directory at a time.
+ */
+public class OutputCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OutputCache.class);
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final Path directory;
+    private final long maxBytes;
+    // Key -> entry size, guarded by `this`, in the order from the least to the most recently used.
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, .75f, true);
+    private long totalBytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * Open the cache in the <code>directory</code>, creating the directory if it does not exist,
+     * and evict the least recently used entries that exceed <code>maxBytes</code>.
+     */
+    public static OutputCache open(Path directory, long maxBytes) throws IOException {
+        if (maxBytes <= 0)
+            throw new IllegalArgumentException("Cache size must be positive, got %d".formatted(maxBytes));
+        Files.createDirectories(directory);
+        OutputCache cache = new OutputCache(directory, maxBytes);
+        cache.load();
+        return cache;
+    }
+
+    private OutputCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Start computing a key. The parts are length-prefixed, hence the keys of different part lists do not collide.
+     */
+    public static KeyBuilder key() {
+        return new KeyBuilder();
+    }
+
+    /**
+     * @return the cached entry or <code>null</code> if there is no entry with the <code>key</code>.
+     */
+    public byte[] get(String key) {
+        synchronized (this) {
+            if (entries.get(key) == null) {
+                misses++;
+                return null;
+            }
+        }
+        Path path = entryPath(key);
+        try {
+            byte[] data = Files.readAllBytes(path);
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+            synchronized (this) {
+                hits++;
+            }
+            return data;
+        } catch (NoSuchFileException e) {
+            // Evicted in the meantime.
+            forget(key);
+            return null;
+        } catch (IOException e) {
+            LOGGER.warn("Unable to read cache entry {}: {}", path, e.getMessage());
+            forget(key);
+            return null;
+        }
+    }
+
+    /**
+     * Store the entry with the <code>key</code> and evict the least recently used entries to stay within the size cap.
+     * An entry larger than the cap is not stored. A failure to write the entry is logged and otherwise ignored.
+     */
+    public void put(String key, byte[] data) {
+        if (data.length > maxBytes)
+            return;
+        Path path = entryPath(key);
+        try {
+            Files.createDirectories(path.getParent());
+            Path tmp = Files.createTempFile(path.getParent(), key, ".tmp");
+            try {
+                Files.write(tmp, data);
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                // The same clock as when the entry is read, the file system clock can be coarser.
+                Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Unable to write cache entry {}: {}", path, e.getMessage());
+            return;
+        }
+
+        List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            Long previous = entries.put(key, (long) data.length);
+            totalBytes += data.length - (previous == null ? 0L : previous);
+            evict(evicted);
+        }
+        delete(evicted);
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    private void load() throws IOException {
+        List<Entry> found = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(directory, 2)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                String name = path.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    // Left behind by an interrupted run.
+                    Files.deleteIfExists(path);
+                    continue;
+                }
+                Path parent = path.getParent();
+                if (parent == null || directory.equals(path) || directory.equals(parent))
+                    continue;
+                String key = parent.getFileName().toString() + name;
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                if (attributes.isRegularFile() && isKey(key))
+                    found.add(new Entry(key, attributes.size(), attributes.lastModifiedTime()));
+            }
+        }
+        found.sort(Comparator.comparing(Entry::lastUsed));
+
+        List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            for (Entry entry : found) {
+                entries.put(entry.key(), entry.size());
+                totalBytes += entry.size();
+            }
+            evict(evicted);
+        }
+        delete(evicted);
+        LOGGER.info("Using output cache at {} with {} entries ({} bytes).", directory.toAbsolutePath(), size(), totalBytes());
+    }
+
+    /**
+     * Remove the least recently used entries from the index until the entries fit into the cap.
+     */
+    private void evict(List<String> evicted) {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            totalBytes -= eldest.getValue();
+            evicted.add(eldest.getKey());
+            iterator.remove();
+        }
+    }
+
+    private void delete(List<String> keys) {
+        for (String key : keys) {
+            try {
+                Files.deleteIfExists(entryPath(key));
+            } catch (IOException e) {
+                LOGGER.warn("Unable to evict cache entry {}: {}", key, e.getMessage());
+            }
+        }
+    }
+
+    private synchronized void forget(String key) {
+        Long size = entries.remove(key);
+        if (size != null)
+            totalBytes -= size;
+    }
+
+    private static boolean isKey(String key) {
+        if (key.length() != 64)
+            return false;
+        for (int i = 0; i < key.length(); i++) {
+            if (Character.digit(key.charAt(i), 16) < 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * The entries are spread into 256 subdirectories by the first byte of the key.
+     */
+    private Path entryPath(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key.substring(2));
+    }
+
+    private record Entry(String key, long size, FileTime lastUsed) {
+    }
+
+    /**
+     * Builder of a SHA-256 cache key.
+     */
+    public static class KeyBuilder {
+
+        private final MessageDigest digest;
+
+        private KeyBuilder() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                // Every Java platform is required to support SHA-256.
+                throw new IllegalStateException(e);
+            }
+        }
+
+        public KeyBuilder add(byte[] part) {
+            digest.update(longBytes(part.length));
+            digest.update(part);
+            return this;
+        }
+
+        public KeyBuilder add(String part) {
+            return add(part.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public KeyBuilder add(long part) {
+            return add(longBytes(part));
+        }
+
+        /**
+         * @return the key as a lower-case hexadecimal string.
+         */
+        public String build() {
+            return HEX.formatHex(digest.digest());
+        }
+
+        private static byte[] longBytes(long value) {
+            byte[] bytes = new byte[Long.BYTES];
+            for (int i = Long.BYTES - 1; i >= 0; i--) {
+                bytes[i] = (byte) value;
+                value >>>= 8;
+            }
+            return bytes;
+        }
+    }
+}
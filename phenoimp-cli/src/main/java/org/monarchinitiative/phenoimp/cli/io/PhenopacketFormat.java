@@ -0,0 +1,61 @@
+package org.monarchinitiative.phenoimp.cli.io;
+
+/**
+ * Supported formats of phenopacket files.
+ */
+public enum PhenopacketFormat {
+
+    /**
+     * A single phenopacket in JSON.
+     */
+    JSON("json"),
+
+    /**
+     * A single phenopacket in binary protobuf.
+     */
+    PROTOBUF("pb"),
+
+    /**
+     * A stream of length-delimited binary phenopackets, as written by {@link com.google.protobuf.MessageLite#writeDelimitedTo(java.io.OutputStream)}.
+     * A single file can hold an entire cohort.
+     */
+    DELIMITED("pbs"),
+
+    /**
+     * JSON Lines, one phenopacket JSON per line. A single file can hold an entire cohort.
+     */
+    NDJSON("jsonl"),
+
+    /**
+     * A JSON array of phenopackets. A single file can hold an entire cohort.
+     * The format can only be read, use {@link #NDJSON} to write a cohort in JSON.
+     */
+    JSON_ARRAY("json");
+
+    private final String extension;
+
+    PhenopacketFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * @return the file name extension, without the leading dot.
+     */
+    public String extension() {
+        return extension;
+    }
+
+    /**
+     * @return <code>true</code> if a file of this format can hold more than one phenopacket.
+     */
+    public boolean isStream() {
+        return this == DELIMITED || this == NDJSON || this == JSON_ARRAY;
+    }
+
+    /**
+     * @return <code>true</code> if the phenopackets can be written in this format.
+     */
+    public boolean isWritable() {
+        return this != JSON_ARRAY;
+    }
+}
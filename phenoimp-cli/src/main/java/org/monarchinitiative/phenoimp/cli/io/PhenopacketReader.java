@@ -0,0 +1,107 @@
+package org.monarchinitiative.phenoimp.cli.io;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import com.google.protobuf.util.JsonFormat;
+import org.monarchinitiative.phenoimp.core.PhenopacketVersion;
+import org.phenopackets.schema.v2.Phenopacket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Read v1 or v2 phenopackets from JSON or from binary protobuf.
+ * <p>
+ * The input is read once and the phenopacket version is sniffed by {@link PhenopacketVersionSniffer}
+ * before parsing the phenopacket from the in-memory buffer.
+ */
+public class PhenopacketReader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PhenopacketReader.class);
+
+    private PhenopacketReader() {
+    }
+
+    public static Message readPhenopacket(Path phenopacket) throws IOException {
+        return readPhenopacket(phenopacket, PhenopacketFormat.JSON);
+    }
+
+    /**
+     * Read a single phenopacket stored in a {@link PhenopacketFormat#JSON} or {@link PhenopacketFormat#PROTOBUF} file.
+     * Use {@link PhenopacketRecordReader#of(Path, PhenopacketFormat)} to read the phenopackets from a stream.
+     */
+    public static Message readPhenopacket(Path phenopacket, PhenopacketFormat format) throws IOException {
+        LOGGER.debug("Reading input phenopacket from {}", phenopacket.toAbsolutePath());
+        return switch (format) {
+            case JSON -> parseJson(Files.readString(phenopacket));
+            case PROTOBUF -> parseBinary(Files.readAllBytes(phenopacket));
+            case DELIMITED, NDJSON, JSON_ARRAY -> throw new IllegalArgumentException("%s file can contain more than one phenopacket".formatted(format));
+        };
+    }
+
+    /**
+     * Decode a phenopacket read from a single phenopacket file or from a stream.
+     */
+    public static Message parse(byte[] data, PhenopacketFormat format) throws InvalidProtocolBufferException {
+        return switch (format) {
+            case JSON, NDJSON, JSON_ARRAY -> parseJson(new String(data, StandardCharsets.UTF_8));
+            case PROTOBUF, DELIMITED -> parseBinary(data);
+        };
+    }
+
+    /**
+     * Decode a record read from a stream by {@link PhenopacketRecordReader}.
+     */
+    public static Message parseRecord(byte[] record, PhenopacketFormat format) throws InvalidProtocolBufferException {
+        return switch (format) {
+            case DELIMITED -> parseBinary(record);
+            case NDJSON, JSON_ARRAY -> parseJson(new String(record, StandardCharsets.UTF_8));
+            case JSON, PROTOBUF -> throw new IllegalArgumentException("%s is not a stream format".formatted(format));
+        };
+    }
+
+    public static Message parseJson(String json) throws InvalidProtocolBufferException {
+        PhenopacketVersion version = PhenopacketVersionSniffer.sniff(json);
+        LOGGER.debug("Sniffed phenopacket version {}", version);
+        return switch (version) {
+            case V1 -> parseV1(json);
+            case V2 -> parseV2(json);
+            // No decisive marker, try v2 first as the previous versions of PhenoImp did.
+            case UNKNOWN -> {
+                try {
+                    yield parseV2(json);
+                } catch (InvalidProtocolBufferException e) {
+                    LOGGER.debug("Falling back to v1 phenopacket");
+                    yield parseV1(json);
+                }
+            }
+        };
+    }
+
+    public static Message parseBinary(byte[] protobuf) throws InvalidProtocolBufferException {
+        PhenopacketVersion version = PhenopacketVersionSniffer.sniff(protobuf);
+        LOGGER.debug("Sniffed phenopacket version {}", version);
+        return switch (version) {
+            case V1 -> org.phenopackets.schema.v1.Phenopacket.parseFrom(protobuf);
+            // Without a decisive field, the message is parsed as v2. The parser reports the error if the message is malformed.
+            // A v2 message with a single medical action and neither files nor metadata is sniffed as v1.
+            case V2, UNKNOWN -> Phenopacket.parseFrom(protobuf);
+        };
+    }
+
+    private static Message parseV1(String json) throws InvalidProtocolBufferException {
+        org.phenopackets.schema.v1.Phenopacket.Builder builder = org.phenopackets.schema.v1.Phenopacket.newBuilder();
+        JsonFormat.parser().merge(json, builder);
+        return builder.build();
+    }
+
+    private static Message parseV2(String json) throws InvalidProtocolBufferException {
+        Phenopacket.Builder builder = Phenopacket.newBuilder();
+        JsonFormat.parser().merge(json, builder);
+        return builder.build();
+    }
+}
@@ -0,0 +1,36 @@
+package org.monarchinitiative.phenoimp.cli.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Read the phenopacket records of a stream, one record at a time.
+ * <p>
+ * The records of regular files are read by {@link MappedPhenopacketReader}, except for
+ * {@link PhenopacketFormat#DELIMITED} streams, which are read sequentially.
+ * <p>
+ * The records are returned as raw bytes to allow decoding them with
+ * {@link PhenopacketReader#parseRecord(byte[], PhenopacketFormat)} on a different thread.
+ */
+public interface PhenopacketRecordReader extends Closeable {
+
+    static PhenopacketRecordReader of(Path path, PhenopacketFormat format) throws IOException {
+        return switch (format) {
+            case DELIMITED -> new DelimitedPhenopacketReader(path);
+            // A pipe cannot be mapped.
+            case NDJSON -> Files.isRegularFile(path)
+                    ? MappedPhenopacketReader.ndjson(path)
+                    : new NdjsonPhenopacketReader(path);
+            case JSON_ARRAY -> MappedPhenopacketReader.jsonArray(path);
+            case JSON, PROTOBUF -> throw new IllegalArgumentException("%s is not a stream format".formatted(format));
+        };
+    }
+
+    /**
+     * @return the bytes of the next phenopacket or <code>null</code> if the end of the stream was reached.
+     */
+    byte[] next() throws IOException;
+
+}
@@ -0,0 +1,218 @@
+package org.monarchinitiative.phenoimp.cli.io;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.WireFormat;
+import org.monarchinitiative.phenoimp.core.PhenopacketVersion;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Detect the schema version of a phenopacket in a single pass, without parsing the phenopacket.
+ * <p>
+ * For JSON, the sniffer walks the top-level object and decides based on the first decisive marker:
+ * <ul>
+ *     <li><code>metaData.phenopacketSchemaVersion</code> starting with <code>1</code> or <code>2</code>,</li>
+ *     <li>a field present only in v1 phenopacket (e.g. <code>genes</code>, <code>variants</code>),</li>
+ *     <li>a field present only in v2 phenopacket (e.g. <code>interpretations</code>, <code>measurements</code>).</li>
+ * </ul>
+ * {@link PhenopacketVersion#UNKNOWN} is returned if there is no marker or if the JSON is malformed.
+ * <p>
+ * For binary protobuf, the fields <code>1</code> to <code>9</code> exist in both versions with the same wire types,
+ * e.g. v2 <code>interpretations</code> (<code>6</code>) would be read as v1 <code>variants</code>. Only v2
+ * <code>files</code> (<code>10</code>) and <code>meta_data</code> (<code>11</code>) are decisive on their own.
+ * The field <code>9</code> is v1 <code>meta_data</code>, but also v2 <code>medical_actions</code>, hence the whole
+ * message is scanned: a message with the field <code>10</code> or <code>11</code>, or with the field <code>9</code>
+ * repeated, is v2, and a message with a single field <code>9</code> and no v2 field is v1. A message without
+ * any of the fields is {@link PhenopacketVersion#UNKNOWN}.
+ */
+public class PhenopacketVersionSniffer {
+
+    private static final Set<String> V1_ONLY_FIELDS = Set.of("genes", "variants", "htsFiles", "hts_files");
+    private static final Set<String> V2_ONLY_FIELDS = Set.of("measurements", "interpretations", "medicalActions", "medical_actions", "files");
+    // v1 `meta_data`, v2 `medical_actions`.
+    private static final int V1_META_DATA_OR_V2_MEDICAL_ACTIONS = 9;
+    private static final int V2_FILES = 10;
+    private static final int V2_META_DATA = 11;
+
+    private final CharSequence json;
+    private int pos = 0;
+
+    public static PhenopacketVersion sniff(CharSequence json) {
+        try {
+            return new PhenopacketVersionSniffer(json).sniffTopLevel();
+        } catch (IllegalArgumentException | IllegalStateException | IndexOutOfBoundsException e) {
+            // Malformed JSON, let the parser report the error.
+            return PhenopacketVersion.UNKNOWN;
+        }
+    }
+
+    public static PhenopacketVersion sniff(byte[] protobuf) {
+        CodedInputStream input = CodedInputStream.newInstance(protobuf);
+        try {
+            int tag;
+            int nField9 = 0;
+            while ((tag = input.readTag()) != 0) {
+                int field = WireFormat.getTagFieldNumber(tag);
+                if (field == V2_FILES || field == V2_META_DATA)
+                    return PhenopacketVersion.V2;
+                if (field == V1_META_DATA_OR_V2_MEDICAL_ACTIONS && ++nField9 > 1)
+                    // The v1 metadata is written once, the v2 medical actions are repeated.
+                    return PhenopacketVersion.V2;
+                if (!input.skipField(tag))
+                    break;
+            }
+            return nField9 == 1 ? PhenopacketVersion.V1 : PhenopacketVersion.UNKNOWN;
+        } catch (IOException e) {
+            // Malformed message, let the parser report the error.
+            return PhenopacketVersion.UNKNOWN;
+        }
+    }
+
+    private PhenopacketVersionSniffer(CharSequence json) {
+        this.json = json;
+    }
+
+    private PhenopacketVersion sniffTopLevel() {
+        expect('{');
+        if (consumeIf('}'))
+            return PhenopacketVersion.UNKNOWN;
+        do {
+            String key = readString();
+            expect(':');
+            if (V1_ONLY_FIELDS.contains(key))
+                return PhenopacketVersion.V1;
+            if (V2_ONLY_FIELDS.contains(key))
+                return PhenopacketVersion.V2;
+            if (key.equals("metaData") || key.equals("meta_data")) {
+                PhenopacketVersion version = sniffMetaData();
+                if (version != PhenopacketVersion.UNKNOWN)
+                    return version;
+            } else {
+                skipValue();
+            }
+        } while (consumeIf(','));
+        return PhenopacketVersion.UNKNOWN;
+    }
+
+    private PhenopacketVersion sniffMetaData() {
+        if (peek() != '{') {
+            skipValue();
+            return PhenopacketVersion.UNKNOWN;
+        }
+        expect('{');
+        if (consumeIf('}'))
+            return PhenopacketVersion.UNKNOWN;
+        do {
+            String key = readString();
+            expect(':');
+            if ((key.equals("phenopacketSchemaVersion") || key.equals("phenopacket_schema_version")) && peek() == '"') {
+                String version = readString().strip();
+                if (version.startsWith("1"))
+                    return PhenopacketVersion.V1;
+                if (version.startsWith("2"))
+                    return PhenopacketVersion.V2;
+            } else {
+                skipValue();
+            }
+        } while (consumeIf(','));
+        expect('}');
+        return PhenopacketVersion.UNKNOWN;
+    }
+
+    private void skipValue() {
+        char c = peek();
+        switch (c) {
+            case '{' -> {
+                pos++;
+                if (consumeIf('}'))
+                    return;
+                do {
+                    readString();
+                    expect(':');
+                    skipValue();
+                } while (consumeIf(','));
+                expect('}');
+            }
+            case '[' -> {
+                pos++;
+                if (consumeIf(']'))
+                    return;
+                do {
+                    skipValue();
+                } while (consumeIf(','));
+                expect(']');
+            }
+            case '"' -> skipString();
+            default -> {
+                // A number, `true`, `false`, or `null`.
+                int start = pos;
+                while (pos < json.length() && "{}[],:\" \t\r\n".indexOf(json.charAt(pos)) < 0)
+                    pos++;
+                if (pos == start)
+                    throw new IllegalStateException("Unexpected character '%c' at %d".formatted(c, pos));
+            }
+        }
+    }
+
+    private String readString() {
+        expect('"');
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            char c = json.charAt(pos++);
+            if (c == '"')
+                return sb.toString();
+            if (c == '\\') {
+                char escaped = json.charAt(pos++);
+                switch (escaped) {
+                    case 'u' -> {
+                        sb.append((char) Integer.parseInt(json.subSequence(pos, pos + 4).toString(), 16));
+                        pos += 4;
+                    }
+                    case 'n' -> sb.append('\n');
+                    case 't' -> sb.append('\t');
+                    case 'r' -> sb.append('\r');
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    default -> sb.append(escaped);
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+    }
+
+    private void skipString() {
+        expect('"');
+        while (true) {
+            char c = json.charAt(pos++);
+            if (c == '"')
+                return;
+            if (c == '\\')
+                pos++;
+        }
+    }
+
+    private char peek() {
+        skipWhitespace();
+        return json.charAt(pos);
+    }
+
+    private boolean consumeIf(char c) {
+        if (peek() == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char c) {
+        if (!consumeIf(c))
+            throw new IllegalStateException("Expected '%c' at %d".formatted(c, pos));
+    }
+
+    private void skipWhitespace() {
+        while (pos < json.length() && Character.isWhitespace(json.charAt(pos)))
+            pos++;
+    }
+}
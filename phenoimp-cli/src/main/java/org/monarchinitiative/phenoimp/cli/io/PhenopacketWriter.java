@@ -0,0 +1,42 @@
+package org.monarchinitiative.phenoimp.cli.io;
+
+import com.google.protobuf.Message;
+import com.google.protobuf.util.JsonFormat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Write v1 or v2 phenopackets in one of the {@link PhenopacketFormat}s.
+ */
+public class PhenopacketWriter {
+
+    private PhenopacketWriter() {
+    }
+
+    /**
+     * Encode the phenopacket. A {@link PhenopacketFormat#DELIMITED} phenopacket is prefixed by its size
+     * and a {@link PhenopacketFormat#NDJSON} phenopacket is a single line terminated by a newline,
+     * hence the encoded phenopackets can be concatenated into a stream.
+     */
+    public static byte[] encode(Message phenopacket, PhenopacketFormat format) throws IOException {
+        return switch (format) {
+            case JSON -> JsonFormat.printer().print(phenopacket).getBytes(StandardCharsets.UTF_8);
+            case PROTOBUF -> phenopacket.toByteArray();
+            case NDJSON -> (JsonFormat.printer().omittingInsignificantWhitespace().print(phenopacket) + "\n").getBytes(StandardCharsets.UTF_8);
+            case DELIMITED -> {
+                ByteArrayOutputStream os = new ByteArrayOutputStream(phenopacket.getSerializedSize() + 5);
+                phenopacket.writeDelimitedTo(os);
+                yield os.toByteArray();
+            }
+            case JSON_ARRAY -> throw new IllegalArgumentException("%s can only be read, use %s to write a cohort".formatted(format, PhenopacketFormat.NDJSON));
+        };
+    }
+
+    public static void writePhenopacket(Message phenopacket, Path output, PhenopacketFormat format) throws IOException {
+        Files.write(output, encode(phenopacket, format));
+    }
+}
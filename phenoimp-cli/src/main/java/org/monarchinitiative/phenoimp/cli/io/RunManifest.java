@@ -0,0 +1,254 @@
+package org.monarchinitiative.phenoimp.cli.io;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only record of the outputs of a batch distortion, used to resume an interrupted run.
+ * <p>
+ * The manifest is a tab-separated file with a line per output: the input path and checksum, the configuration
+ * the output was distorted with, the derived random seed, the output path and checksum, and the status.
+ * The entries are buffered and flushed in batches of {@code flushEvery}, and on {@link #close()}.
+ * An output is complete if its last entry is {@link Status#OK}, the input and the configuration did not change,
+ * and the output file still has the recorded checksum. A line truncated by an interrupted run is ignored.
+ * <p>
+ * The class is thread-safe, as long as a single process uses the manifest at a time.
+ */
+public class RunManifest implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RunManifest.class);
+
+    public static final int DEFAULT_FLUSH_EVERY = 256;
+    private static final String HEADER = "input\tinput_checksum\tconfig\tseed\toutput\toutput_checksum\tstatus";
+    private static final String NONE = "-";
+
+    private final Path path;
+    private final int flushEvery;
+    // Output path -> the last entry of the output in the previous runs. Read-only after open.
+    private final Map<String, Entry> previous;
+    private final BufferedWriter writer;
+    private int pending = 0;
+
+    /**
+     * Read the entries of the previous runs from the manifest at the {@code path}, if any,
+     * and open the manifest for appending the entries of this run.
+     */
+    public static RunManifest open(Path path, int flushEvery) throws IOException {
+        if (flushEvery < 1)
+            throw new IllegalArgumentException("Flush batch size must be positive, got %d".formatted(flushEvery));
+        Map<String, Entry> previous = read(path);
+        boolean terminated = endsWithNewline(path);
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null)
+            Files.createDirectories(parent);
+        BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        try {
+            if (Files.size(path) == 0) {
+                writer.write(HEADER);
+                writer.newLine();
+            } else if (!terminated) {
+                // Start after the line truncated by an interrupted run.
+                writer.newLine();
+            }
+            writer.flush();
+        } catch (IOException e) {
+            writer.close();
+            throw e;
+        }
+        LOGGER.info("Using run manifest at {} with {} entries of the previous runs.", path.toAbsolutePath(), previous.size());
+        return new RunManifest(path, flushEvery, previous, writer);
+    }
+
+    private RunManifest(Path path, int flushEvery, Map<String, Entry> previous, BufferedWriter writer) {
+        this.path = path;
+        this.flushEvery = flushEvery;
+        this.previous = previous;
+        this.writer = writer;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    /**
+     * @return the last entry of the {@code output} in the previous runs.
+     */
+    public Optional<Entry> previous(Path output) {
+        return Optional.ofNullable(previous.get(key(output)));
+    }
+
+    /**
+     * @return {@code true} if a previous run wrote the {@code output} from the input with the {@code inputChecksum}
+     * using the {@code config}, and the output has not changed since.
+     */
+    public boolean isComplete(Path output, String inputChecksum, String config) {
+        Entry entry = previous.get(key(output));
+        if (entry == null
+                || entry.status() != Status.OK
+                || NONE.equals(entry.config())
+                || !entry.config().equals(config)
+                || !entry.inputChecksum().equals(inputChecksum))
+            return false;
+        try {
+            return entry.outputChecksum().equals(checksum(output));
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            LOGGER.warn("Unable to read {}: {}", output.toAbsolutePath(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Append the {@code entry} to the manifest. The entry is written to the disk with the next batch.
+     */
+    public synchronized void append(Entry entry) throws IOException {
+        writer.write(entry.toLine());
+        writer.newLine();
+        if (++pending >= flushEvery)
+            flush();
+    }
+
+    public synchronized void flush() throws IOException {
+        writer.flush();
+        pending = 0;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+
+    /**
+     * @return CRC32C of the {@code data} as a hexadecimal string.
+     */
+    public static String checksum(byte[] data) {
+        CRC32C crc = new CRC32C();
+        crc.update(data);
+        return toHex(crc.getValue());
+    }
+
+    /**
+     * @return CRC32C of the content of the {@code file} as a hexadecimal string.
+     */
+    public static String checksum(Path file) throws IOException {
+        CRC32C crc = new CRC32C();
+        byte[] buffer = new byte[8192];
+        try (InputStream is = Files.newInputStream(file)) {
+            int n;
+            while ((n = is.read(buffer)) > 0)
+                crc.update(buffer, 0, n);
+        }
+        return toHex(crc.getValue());
+    }
+
+    private static String toHex(long crc) {
+        return "%08x".formatted(crc);
+    }
+
+    private static String key(Path output) {
+        return output.toAbsolutePath().normalize().toString();
+    }
+
+    private static Map<String, Entry> read(Path path) throws IOException {
+        Map<String, Entry> entries = new HashMap<>();
+        if (!Files.exists(path))
+            return entries;
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.equals(HEADER))
+                    continue;
+                Entry entry = Entry.parse(line);
+                if (entry == null)
+                    LOGGER.debug("Ignoring malformed manifest line '{}'", line);
+                else
+                    // The last entry of an output wins.
+                    entries.put(key(entry.output()), entry);
+            }
+        }
+        return entries;
+    }
+
+    private static boolean endsWithNewline(Path path) throws IOException {
+        if (!Files.exists(path) || Files.size(path) == 0)
+            return true;
+        try (SeekableByteChannel channel = Files.newByteChannel(path)) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.position(channel.size() - 1);
+            channel.read(last);
+            return last.get(0) == '\n';
+        }
+    }
+
+    public enum Status {
+        OK,
+        FAILED
+    }
+
+    /**
+     * An entry of the manifest.
+     *
+     * @param inputChecksum checksum of the input phenopacket or {@code null} if the input could not be read.
+     * @param config key of the noise settings, the replicate seed, and the output format, or {@code null}
+     *               if the output cannot be resumed.
+     * @param seed random seed derived for the phenopacket or {@code null} if the phenopacket was not distorted
+     *             in this run, e.g. when the output was found in the cache.
+     * @param outputChecksum checksum of the output or {@code null} if the output was not written.
+     */
+    public record Entry(Path input,
+                        String inputChecksum,
+                        String config,
+                        Long seed,
+                        Path output,
+                        String outputChecksum,
+                        Status status) {
+
+        public Entry {
+            Objects.requireNonNull(input);
+            Objects.requireNonNull(output);
+            Objects.requireNonNull(status);
+            inputChecksum = inputChecksum == null ? NONE : inputChecksum;
+            config = config == null ? NONE : config;
+            outputChecksum = outputChecksum == null ? NONE : outputChecksum;
+        }
+
+        private String toLine() {
+            return String.join("\t",
+                    input.toAbsolutePath().toString(),
+                    inputChecksum,
+                    config,
+                    seed == null ? NONE : seed.toString(),
+                    output.toAbsolutePath().toString(),
+                    outputChecksum,
+                    status.name());
+        }
+
+        /**
+         * @return the entry or {@code null} if the {@code line} is malformed.
+         */
+        private static Entry parse(String line) {
+            String[] fields = line.split("\t", -1);
+            if (fields.length != 7)
+                return null;
+            try {
+                Long seed = NONE.equals(fields[3]) ? null : Long.parseLong(fields[3]);
+                return new Entry(Path.of(fields[0]), fields[1], fields[2], seed, Path.of(fields[4]), fields[5], Status.valueOf(fields[6]));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package org.monarchinitiative.phenoimp.cli.server;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.monarchinitiative.phenoimp.cli.io.PhenopacketFormat;
+import org.monarchinitiative.phenoimp.cli.io.PhenopacketReader;
+import org.monarchinitiative.phenoimp.cli.io.PhenopacketWriter;
+import org.monarchinitiative.phenoimp.configuration.PhenoImpBuilder;
+import org.monarchinitiative.phenoimp.configuration.RandomTermDistribution;
+import org.monarchinitiative.phenoimp.core.DistortionRunner;
+import org.monarchinitiative.phenoimp.core.PhenoImp;
+import org.monarchinitiative.phenoimp.core.PhenopacketVersion;
+import org.monarchinitiative.phenoimp.core.RandomSeeds;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HTTP server for distorting phenopackets with the ontology and the other resources loaded once.
+ * <p>
+ * <code>POST /distort</code> distorts the phenopacket sent in the request body, as JSON or as binary protobuf
+ * based on the <code>Content-Type</code> header, and responds with the distorted phenopacket in the same format.
+ * The noise is configured by the query parameters <code>approximate</code> (<code>OFF</code>, <code>PARENT</code>,
+ * <code>GRANDPARENT</code>, or the number of hops upstream),
+ * <code>add-n-random-terms</code>, <code>random-term-distribution</code>, <code>drop-ar-variant</code>, and <code>random-seed</code>.
+ * The seed used for the distortion is returned in the <code>X-PhenoImp-Random-Seed</code> header. The phenopacket
+ * is seeded in the same way as by the <code>distort</code> command, hence a request and a command run
+ * with the same seed and noise produce the same phenopacket.
+ * <p>
+ * <code>GET /health</code> responds with <code>200</code> when the server is up.
+ * <p>
+ * The requests are processed by a fixed number of worker threads. When all workers are busy and the queue is full,
+ * the request is answered with <code>503</code> by a separate thread, hence the thread accepting the connections
+ * is never blocked. When even that thread is {@link #MAX_PENDING_REJECTIONS} requests behind, the connection
+ * is closed without a response. A request body larger than the maximum size is answered with <code>413</code>.
+ */
+public class DistortionServer implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DistortionServer.class);
+
+    private static final String SEED_HEADER = "X-PhenoImp-Random-Seed";
+    private static final String JSON_CONTENT_TYPE = "application/json";
+    private static final String PROTOBUF_CONTENT_TYPE = "application/x-protobuf";
+    /**
+     * The global seed of the cached distortion runners. The runners are always run with a random seeded per request.
+     */
+    private static final long RUNNER_SEED = 0L;
+    public static final int DEFAULT_MAX_BODY_SIZE = 16 * 1024 * 1024;
+    /**
+     * Number of rejected requests waiting to be answered with <code>503</code>, the connections of the requests
+     * rejected beyond that are closed.
+     */
+    public static final int MAX_PENDING_REJECTIONS = 64;
+    /**
+     * Set for the requests rejected by the workers, which are only answered with <code>503</code>.
+     */
+    private static final ThreadLocal<Boolean> REJECTED = ThreadLocal.withInitial(() -> false);
+
+    private final HttpServer server;
+    private final ThreadPoolExecutor executor;
+    private final ThreadPoolExecutor rejections;
+    private final int maxBodySize;
+    private final PhenoImpBuilder builder;
+    private final Map<NoiseSettings, PhenoImp> phenoImps;
+
+    /**
+     * @param builder builder for the distortion runners, with the data loaded.
+     * @param address address to listen on.
+     * @param nThreads number of worker threads.
+     * @param queueSize number of requests waiting for a worker.
+     * @param maxConfigs number of noise configurations to keep built.
+     * @param maxBodySize maximum size of the request body in bytes.
+     */
+    public DistortionServer(PhenoImpBuilder builder,
+                            InetSocketAddress address,
+                            int nThreads,
+                            int queueSize,
+                            int maxConfigs,
+                            int maxBodySize) throws IOException {
+        if (nThreads <= 0)
+            throw new IllegalArgumentException("Number of threads must be positive, got %d".formatted(nThreads));
+        if (queueSize < 0)
+            throw new IllegalArgumentException("Queue size must be non-negative, got %d".formatted(queueSize));
+        if (maxConfigs <= 0)
+            throw new IllegalArgumentException("Number of cached configurations must be positive, got %d".formatted(maxConfigs));
+        if (maxBodySize <= 0 || maxBodySize == Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Maximum body size must be in [1, %d], got %d".formatted(Integer.MAX_VALUE - 1, maxBodySize));
+        this.maxBodySize = maxBodySize;
+        this.builder = Objects.requireNonNull(builder);
+        this.phenoImps = new LinkedHashMap<>(16, .75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<NoiseSettings, PhenoImp> eldest) {
+                return size() > maxConfigs;
+            }
+        };
+        // Answering a rejected request only reads the request headers, a single thread is enough.
+        this.rejections = new ThreadPoolExecutor(1, 1,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(MAX_PENDING_REJECTIONS),
+                new WorkerThreadFactory("phenoimp-server-rejected-"));
+        this.executor = new ThreadPoolExecutor(nThreads, nThreads,
+                0L, TimeUnit.MILLISECONDS,
+                queueSize == 0 ? new SynchronousQueue<>() : new ArrayBlockingQueue<>(queueSize),
+                new WorkerThreadFactory("phenoimp-server-"),
+                (exchange, e) -> reject(exchange));
+        this.server = HttpServer.create(address, 0);
+        this.server.setExecutor(executor);
+        this.server.createContext("/distort", this::distort);
+        this.server.createContext("/health", this::health);
+    }
+
+    public void start() {
+        server.start();
+        LOGGER.info("Listening on {}", server.getAddress());
+    }
+
+    /**
+     * @return the address the server listens on, e.g. to find the port if the server was bound to port <code>0</code>.
+     */
+    public InetSocketAddress address() {
+        return server.getAddress();
+    }
+
+    /**
+     * Stop accepting the requests and wait for the requests in progress to finish.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+        rejections.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS))
+                executor.shutdownNow();
+            if (!rejections.awaitTermination(1, TimeUnit.SECONDS))
+                rejections.shutdownNow();
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            rejections.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Hand the request rejected by the workers over to the thread answering with <code>503</code>.
+     * <p>
+     * If that thread is {@link #MAX_PENDING_REJECTIONS} requests behind or the server is closed,
+     * the {@link RejectedExecutionException} is passed on to the server, which closes the connection.
+     */
+    private void reject(Runnable exchange) {
+        try {
+            rejections.execute(() -> {
+                REJECTED.set(true);
+                try {
+                    exchange.run();
+                } finally {
+                    REJECTED.remove();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug("Closing the connection, {} rejected requests are waiting or the server is closed", rejections.getQueue().size());
+            throw e;
+        }
+    }
+
+    private void health(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                respondError(exchange, 405, "Use GET");
+                return;
+            }
+            respond(exchange, 200, "text/plain", "OK".getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private void distort(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respondError(exchange, 405, "Use POST");
+                return;
+            }
+            if (!"/distort".equals(exchange.getRequestURI().getPath())) {
+                respondError(exchange, 404, "Not found");
+                return;
+            }
+            if (REJECTED.get()) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                respondError(exchange, 503, "All workers are busy, try again later");
+                return;
+            }
+
+            // 0 - Parse the request.
+            Map<String, String> params;
+            NoiseSettings settings;
+            long seed;
+            PhenopacketFormat format;
+            Message pp;
+            try {
+                params = parseQuery(exchange.getRequestURI().getRawQuery());
+                settings = NoiseSettings.parse(params);
+                String seedParam = params.get("random-seed");
+                seed = seedParam == null ? ThreadLocalRandom.current().nextLong() : Long.parseLong(seedParam);
+                format = requestFormat(exchange.getRequestHeaders().getFirst("Content-Type"));
+                byte[] body = readBody(exchange);
+                if (body == null) {
+                    respondError(exchange, 413, "Request body exceeds %d bytes".formatted(maxBodySize));
+                    return;
+                }
+                pp = format == PhenopacketFormat.JSON
+                        ? PhenopacketReader.parseJson(new String(body, StandardCharsets.UTF_8))
+                        : PhenopacketReader.parseBinary(body);
+            } catch (IllegalArgumentException | InvalidProtocolBufferException e) {
+                respondError(exchange, 400, e.getMessage());
+                return;
+            }
+
+            // 1 - Distort the phenopacket.
+            byte[] distorted;
+            try {
+                PhenopacketVersion version = PhenopacketVersion.of(pp);
+                Optional<DistortionRunner> runner = phenoImp(settings).forPhenopacket(version);
+                if (runner.isEmpty()) {
+                    respondError(exchange, 400, "Unsupported phenopacket version %s".formatted(version));
+                    return;
+                }
+                Message result = runner.get().run(pp, new Random(RandomSeeds.forPhenopacket(seed, pp)));
+                distorted = PhenopacketWriter.encode(result, format);
+            } catch (RuntimeException e) {
+                LOGGER.error("Error while distorting phenopacket: {}", e.getMessage(), e);
+                respondError(exchange, 500, e.getMessage());
+                return;
+            }
+
+            // 2 - Send the distorted phenopacket.
+            exchange.getResponseHeaders().set(SEED_HEADER, Long.toString(seed));
+            respond(exchange, 200, format == PhenopacketFormat.JSON ? JSON_CONTENT_TYPE : PROTOBUF_CONTENT_TYPE, distorted);
+        }
+    }
+
+    /**
+     * Get the distortion runners for the noise settings, building the runners if not cached.
+     */
+    private PhenoImp phenoImp(NoiseSettings settings) {
+        synchronized (phenoImps) {
+            // The builder is not thread-safe, hence the runners are built while holding the lock.
+            // Building is cheap as the runners are built lazily and share the data of the builder.
+            return phenoImps.computeIfAbsent(settings, s -> builder.nHopsForTermGeneralization(s.nHops())
+                    .addNRandomPhenotypeTerms(s.nRandomTerms())
+                    .randomTermDistribution(s.randomTermDistribution())
+                    .dropOneOfTwoRecessiveVariants(s.dropArVariant())
+                    .setRandomSeed(RUNNER_SEED)
+                    .build());
+        }
+    }
+
+    /**
+     * @return the request body or <code>null</code> if the body is larger than the maximum size.
+     */
+    private byte[] readBody(HttpExchange exchange) throws IOException {
+        String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (contentLength != null) {
+            try {
+                if (Long.parseLong(contentLength.strip()) > maxBodySize)
+                    return null;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid Content-Length '%s'".formatted(contentLength));
+            }
+        }
+        // The length is not known for a chunked body, read one byte more to detect a body that is too large.
+        byte[] body = exchange.getRequestBody().readNBytes(maxBodySize + 1);
+        return body.length > maxBodySize ? null : body;
+    }
+
+    private static PhenopacketFormat requestFormat(String contentType) {
+        if (contentType == null)
+            return PhenopacketFormat.JSON;
+        String mediaType = contentType.split(";", 2)[0].strip().toLowerCase(Locale.ROOT);
+        return switch (mediaType) {
+            case JSON_CONTENT_TYPE, "text/plain" -> PhenopacketFormat.JSON;
+            case PROTOBUF_CONTENT_TYPE, "application/protobuf", "application/octet-stream" -> PhenopacketFormat.PROTOBUF;
+            default -> throw new IllegalArgumentException("Unsupported content type '%s'".formatted(contentType));
+        };
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> params = new HashMap<>();
+        if (query == null || query.isEmpty())
+            return params;
+        for (String pair : query.split("&")) {
+            if (pair.isEmpty())
+                continue;
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.put(key, value);
+        }
+        return params;
+    }
+
+    private static void respondError(HttpExchange exchange, int status, String message) throws IOException {
+        respond(exchange, status, "text/plain", String.valueOf(message).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    /**
+     * Noise settings of a request, used as the key of the cached distortion runners.
+     */
+    record NoiseSettings(int nHops, int nRandomTerms, RandomTermDistribution randomTermDistribution, boolean dropArVariant) {
+
+        static NoiseSettings parse(Map<String, String> params) {
+            String approximate = params.getOrDefault("approximate", "OFF");
+            int nHops = switch (approximate.toUpperCase(Locale.ROOT)) {
+                case "OFF" -> 0;
+                case "PARENT" -> 1;
+                case "GRANDPARENT" -> 2;
+                default -> parseNonNegative(params, "approximate");
+            };
+            int nRandomTerms = parseNonNegative(params, "add-n-random-terms");
+            String distribution = params.getOrDefault("random-term-distribution", "UNIFORM");
+            RandomTermDistribution randomTermDistribution;
+            try {
+                randomTermDistribution = RandomTermDistribution.valueOf(distribution.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Parameter 'random-term-distribution' must be one of %s, got '%s'".formatted(Arrays.toString(RandomTermDistribution.values()), distribution));
+            }
+            String dropArVariant = params.getOrDefault("drop-ar-variant", "false");
+            if (!dropArVariant.equals("true") && !dropArVariant.equals("false"))
+                throw new IllegalArgumentException("Parameter 'drop-ar-variant' must be 'true' or 'false', got '%s'".formatted(dropArVariant));
+            return new NoiseSettings(nHops, nRandomTerms, randomTermDistribution, Boolean.parseBoolean(dropArVariant));
+        }
+
+        private static int parseNonNegative(Map<String, String> params, String name) {
+            String value = params.get(name);
+            if (value == null)
+                return 0;
+            int n;
+            try {
+                n = Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Parameter '%s' must be a number, got '%s'".formatted(name, value));
+            }
+            if (n < 0)
+                throw new IllegalArgumentException("Parameter '%s' must be non-negative, got %d".formatted(name, n));
+            return n;
+        }
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        private WorkerThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.monarchinitiative.phenoimp.cli.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class OutputCacheTest {
+
+    @TempDir
+    public Path tmp;
+
+    @Test
+    public void leastRecentlyUsedEntryIsEvicted() throws Exception {
+        OutputCache cache = OutputCache.open(tmp, 25);
+        String a = key("a"), b = key("b"), c = key("c");
+        cache.put(a, new byte[10]);
+        cache.put(b, new byte[10]);
+        // `a` is now more recently used than `b`.
+        assertThat(cache.get(a), notNullValue());
+
+        cache.put(c, new byte[10]);
+
+        assertThat(cache.get(b), nullValue());
+        assertThat(cache.get(a), notNullValue());
+        assertThat(cache.get(c), notNullValue());
+        assertThat(cache.size(), equalTo(2));
+        assertThat(cache.totalBytes(), equalTo(20L));
+        assertThat(Files.exists(entryPath(b)), equalTo(false));
+    }
+
+    @Test
+    public void entryLargerThanTheCapIsNotStored() throws Exception {
+        OutputCache cache = OutputCache.open(tmp, 10);
+        String a = key("a");
+
+        cache.put(a, new byte[11]);
+
+        assertThat(cache.get(a), nullValue());
+        assertThat(cache.size(), equalTo(0));
+        assertThat(cache.misses(), equalTo(1L));
+    }
+
+    @Test
+    public void entriesAreReloadedAfterRestart() throws Exception {
+        String a = key("a"), b = key("b"), c = key("c");
+        OutputCache cache = OutputCache.open(tmp, 100);
+        cache.put(a, new byte[]{1});
+        cache.put(b, new byte[]{2, 2});
+        cache.put(c, new byte[]{3, 3, 3});
+        // The recency is persisted as the modification time, `b` is the least recently used entry.
+        Files.setLastModifiedTime(entryPath(b), FileTime.fromMillis(1_000L));
+        Files.setLastModifiedTime(entryPath(a), FileTime.fromMillis(2_000L));
+        Files.setLastModifiedTime(entryPath(c), FileTime.fromMillis(3_000L));
+        // Left behind by an interrupted run.
+        Path leftover = Files.createTempFile(entryPath(a).getParent(), a, ".tmp");
+
+        OutputCache reopened = OutputCache.open(tmp, 4);
+
+        assertThat(Files.exists(leftover), equalTo(false));
+        assertThat(reopened.size(), equalTo(2));
+        assertThat(reopened.totalBytes(), equalTo(4L));
+        assertThat(reopened.get(b), nullValue());
+        assertThat(reopened.get(a), equalTo(new byte[]{1}));
+        assertThat(reopened.get(c), equalTo(new byte[]{3, 3, 3}));
+        assertThat(reopened.hits(), equalTo(2L));
+    }
+
+    @Test
+    public void keysDependOnThePartBoundaries() {
+        String ab = OutputCache.key().add("a").add("b").build();
+
+        assertThat(ab, equalTo(OutputCache.key().add("a").add("b").build()));
+        assertThat(ab, not(equalTo(OutputCache.key().add("ab").build())));
+        assertThat(ab.length(), equalTo(64));
+    }
+
+    private Path entryPath(String key) {
+        return tmp.resolve(key.substring(0, 2)).resolve(key.substring(2));
+    }
+
+    private static String key(String value) {
+        return OutputCache.key().add(value).build();
+    }
+}
@@ -0,0 +1,98 @@
+package org.monarchinitiative.phenoimp.cli.io;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.phenopackets.schema.v2.Phenopacket;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PhenopacketReaderTest {
+
+    @TempDir
+    public Path tmp;
+
+    @Test
+    public void protobufRoundTrip() throws Exception {
+        for (Message pp : List.of(TestPhenopackets.v1(), TestPhenopackets.v2())) {
+            Path path = tmp.resolve("pp.pb");
+            PhenopacketWriter.writePhenopacket(pp, path, PhenopacketFormat.PROTOBUF);
+
+            Message read = PhenopacketReader.readPhenopacket(path, PhenopacketFormat.PROTOBUF);
+
+            assertThat(read, equalTo(pp));
+        }
+    }
+
+    @Test
+    public void v2WithMedicalActionsOrFilesRoundTrip() throws Exception {
+        for (Phenopacket pp : List.of(TestPhenopackets.v2WithMedicalActions(), TestPhenopackets.v2WithFiles())) {
+            Path path = tmp.resolve("pp.pb");
+            PhenopacketWriter.writePhenopacket(pp, path, PhenopacketFormat.PROTOBUF);
+
+            Message read = PhenopacketReader.readPhenopacket(path, PhenopacketFormat.PROTOBUF);
+
+            assertThat(read, instanceOf(Phenopacket.class));
+            assertThat(read, equalTo(pp));
+        }
+    }
+
+    @Test
+    public void v2WithoutMetaDataIsReadAsV2() throws Exception {
+        Phenopacket pp = TestPhenopackets.v2WithoutMetaData();
+
+        Message read = PhenopacketReader.parseBinary(pp.toByteArray());
+
+        assertThat(read, instanceOf(Phenopacket.class));
+        assertThat(read, equalTo(pp));
+    }
+
+    @Test
+    public void malformedProtobufIsRejected() {
+        assertThrows(InvalidProtocolBufferException.class, () -> PhenopacketReader.parseBinary(new byte[]{(byte) 0x0A, (byte) 0x7F, 1}));
+    }
+
+    @Test
+    public void delimitedRoundTrip() throws Exception {
+        List<Message> phenopackets = List.of(TestPhenopackets.v1(), TestPhenopackets.v2(), TestPhenopackets.v2WithoutMetaData());
+        Path path = tmp.resolve("cohort.pbs");
+        try (var os = Files.newOutputStream(path)) {
+            for (Message pp : phenopackets)
+                os.write(PhenopacketWriter.encode(pp, PhenopacketFormat.DELIMITED));
+        }
+
+        try (PhenopacketRecordReader reader = PhenopacketRecordReader.of(path, PhenopacketFormat.DELIMITED)) {
+            for (Message pp : phenopackets)
+                assertThat(PhenopacketReader.parseRecord(reader.next(), PhenopacketFormat.DELIMITED), equalTo(pp));
+            assertThat(reader.next(), nullValue());
+        }
+    }
+
+    @Test
+    public void truncatedDelimitedRecordIsRejected() throws Exception {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        TestPhenopackets.v2().writeDelimitedTo(os);
+        byte[] data = os.toByteArray();
+
+        try (DelimitedPhenopacketReader reader = new DelimitedPhenopacketReader(new ByteArrayInputStream(Arrays.copyOf(data, data.length - 1)))) {
+            assertThrows(EOFException.class, reader::next);
+        }
+    }
+
+    @Test
+    public void singlePhenopacketFormatsCannotBeStreamed() {
+        assertThrows(IllegalArgumentException.class, () -> PhenopacketRecordReader.of(tmp.resolve("pp.json"), PhenopacketFormat.JSON));
+        assertThrows(IllegalArgumentException.class, () -> PhenopacketReader.readPhenopacket(tmp.resolve("cohort.pbs"), PhenopacketFormat.DELIMITED));
+    }
+}
@@ -0,0 +1,74 @@
+package org.monarchinitiative.phenoimp.cli.io;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.phenoimp.core.PhenopacketVersion;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class PhenopacketVersionSnifferTest {
+
+    @Test
+    public void binaryV1WithMetaData() {
+        assertThat(PhenopacketVersionSniffer.sniff(TestPhenopackets.v1().toByteArray()), equalTo(PhenopacketVersion.V1));
+    }
+
+    @Test
+    public void binaryV2WithMetaData() {
+        assertThat(PhenopacketVersionSniffer.sniff(TestPhenopackets.v2().toByteArray()), equalTo(PhenopacketVersion.V2));
+    }
+
+    @Test
+    public void binaryV2WithMedicalActions() {
+        // The medical actions share the field number with v1 metadata and precede v2 metadata.
+        assertThat(PhenopacketVersionSniffer.sniff(TestPhenopackets.v2WithMedicalActions().toByteArray()), equalTo(PhenopacketVersion.V2));
+    }
+
+    @Test
+    public void binaryV2WithFiles() {
+        assertThat(PhenopacketVersionSniffer.sniff(TestPhenopackets.v2WithFiles().toByteArray()), equalTo(PhenopacketVersion.V2));
+    }
+
+    @Test
+    public void binaryV2WithRepeatedMedicalActionsAndWithoutMetaData() {
+        byte[] protobuf = TestPhenopackets.v2WithMedicalActions().toBuilder().clearMetaData().build().toByteArray();
+
+        assertThat(PhenopacketVersionSniffer.sniff(protobuf), equalTo(PhenopacketVersion.V2));
+    }
+
+    @Test
+    public void binaryV2WithoutMetaDataIsUnknown() {
+        // The measurements and the interpretations share the field numbers with v1 biosamples and variants.
+        byte[] protobuf = TestPhenopackets.v2WithoutMetaData().toByteArray();
+
+        assertThat(PhenopacketVersionSniffer.sniff(protobuf), equalTo(PhenopacketVersion.UNKNOWN));
+    }
+
+    @Test
+    public void emptyBinaryIsUnknown() {
+        assertThat(PhenopacketVersionSniffer.sniff(new byte[0]), equalTo(PhenopacketVersion.UNKNOWN));
+    }
+
+    @Test
+    public void malformedBinaryIsUnknown() {
+        assertThat(PhenopacketVersionSniffer.sniff(new byte[]{(byte) 0x0A, (byte) 0x7F, 1}), equalTo(PhenopacketVersion.UNKNOWN));
+    }
+
+    @Test
+    public void jsonSchemaVersion() {
+        assertThat(PhenopacketVersionSniffer.sniff("{\"id\": \"a\", \"metaData\": {\"phenopacketSchemaVersion\": \"1.0\"}}"), equalTo(PhenopacketVersion.V1));
+        assertThat(PhenopacketVersionSniffer.sniff("{\"id\": \"a\", \"metaData\": {\"phenopacketSchemaVersion\": \"2.0\"}}"), equalTo(PhenopacketVersion.V2));
+    }
+
+    @Test
+    public void jsonVersionSpecificFields() {
+        assertThat(PhenopacketVersionSniffer.sniff("{\"id\": \"a\", \"genes\": [{\"id\": \"HGNC:1\"}]}"), equalTo(PhenopacketVersion.V1));
+        assertThat(PhenopacketVersionSniffer.sniff("{\"id\": \"a\", \"interpretations\": []}"), equalTo(PhenopacketVersion.V2));
+    }
+
+    @Test
+    public void jsonWithoutMarkerIsUnknown() {
+        assertThat(PhenopacketVersionSniffer.sniff("{\"id\": \"a\", \"subject\": {\"id\": \"b\"}}"), equalTo(PhenopacketVersion.UNKNOWN));
+        assertThat(PhenopacketVersionSniffer.sniff("{\"id\": "), equalTo(PhenopacketVersion.UNKNOWN));
+    }
+}
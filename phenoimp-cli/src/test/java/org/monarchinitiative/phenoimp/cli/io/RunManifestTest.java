@@ -0,0 +1,145 @@
+package org.monarchinitiative.phenoimp.cli.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class RunManifestTest {
+
+    private static final String CONFIG = "0123456789abcdef";
+
+    @TempDir
+    public Path tmp;
+
+    @Test
+    public void completedOutputsAreResumed() throws Exception {
+        Path manifestPath = tmp.resolve("manifest.tsv");
+        Path input = tmp.resolve("in.json");
+        Path done = writeOutput("done.json", "distorted");
+        Path failed = tmp.resolve("failed.json");
+        try (RunManifest manifest = RunManifest.open(manifestPath, 1)) {
+            manifest.append(ok(input, "aaaa", done));
+            manifest.append(new RunManifest.Entry(input, "aaaa", CONFIG, 42L, failed, null, RunManifest.Status.FAILED));
+        }
+
+        try (RunManifest manifest = RunManifest.open(manifestPath, 1)) {
+            assertThat(manifest.isComplete(done, "aaaa", CONFIG), equalTo(true));
+            assertThat(manifest.isComplete(failed, "aaaa", CONFIG), equalTo(false));
+            assertThat(manifest.isComplete(tmp.resolve("unknown.json"), "aaaa", CONFIG), equalTo(false));
+            // The input or the configuration changed.
+            assertThat(manifest.isComplete(done, "bbbb", CONFIG), equalTo(false));
+            assertThat(manifest.isComplete(done, "aaaa", "fedcba9876543210"), equalTo(false));
+
+            Optional<RunManifest.Entry> entry = manifest.previous(done);
+            assertThat(entry.isPresent(), equalTo(true));
+            assertThat(entry.get().seed(), equalTo(42L));
+            assertThat(entry.get().input(), equalTo(input.toAbsolutePath()));
+        }
+    }
+
+    @Test
+    public void lastEntryOfAnOutputWins() throws Exception {
+        Path manifestPath = tmp.resolve("manifest.tsv");
+        Path input = tmp.resolve("in.json");
+        Path output = writeOutput("out.json", "distorted");
+        try (RunManifest manifest = RunManifest.open(manifestPath, 10)) {
+            manifest.append(ok(input, "aaaa", output));
+        }
+        try (RunManifest manifest = RunManifest.open(manifestPath, 10)) {
+            manifest.append(new RunManifest.Entry(input, "aaaa", CONFIG, 42L, output, null, RunManifest.Status.FAILED));
+        }
+
+        try (RunManifest manifest = RunManifest.open(manifestPath, 10)) {
+            assertThat(manifest.isComplete(output, "aaaa", CONFIG), equalTo(false));
+        }
+    }
+
+    @Test
+    public void truncatedLineIsIgnored() throws Exception {
+        Path manifestPath = tmp.resolve("manifest.tsv");
+        Path input = tmp.resolve("in.json");
+        Path first = writeOutput("first.json", "first");
+        Path second = writeOutput("second.json", "second");
+        try (RunManifest manifest = RunManifest.open(manifestPath, 1)) {
+            manifest.append(ok(input, "aaaa", first));
+            manifest.append(ok(input, "aaaa", second));
+        }
+        // Simulate a run interrupted in the middle of writing the last line.
+        byte[] content = Files.readAllBytes(manifestPath);
+        Files.write(manifestPath, Arrays.copyOf(content, content.length - 10));
+
+        try (RunManifest manifest = RunManifest.open(manifestPath, 1)) {
+            assertThat(manifest.isComplete(first, "aaaa", CONFIG), equalTo(true));
+            assertThat(manifest.isComplete(second, "aaaa", CONFIG), equalTo(false));
+            manifest.append(ok(input, "aaaa", second));
+        }
+
+        // The entry appended after the truncated line starts on a line of its own.
+        List<String> lines = Files.readAllLines(manifestPath, StandardCharsets.UTF_8);
+        assertThat(lines.get(lines.size() - 1).endsWith("\tOK"), equalTo(true));
+        try (RunManifest manifest = RunManifest.open(manifestPath, 1)) {
+            assertThat(manifest.isComplete(second, "aaaa", CONFIG), equalTo(true));
+        }
+    }
+
+    @Test
+    public void changedOutputIsNotComplete() throws Exception {
+        Path manifestPath = tmp.resolve("manifest.tsv");
+        Path input = tmp.resolve("in.json");
+        Path changed = writeOutput("changed.json", "distorted");
+        Path deleted = writeOutput("deleted.json", "distorted");
+        try (RunManifest manifest = RunManifest.open(manifestPath, 1)) {
+            manifest.append(ok(input, "aaaa", changed));
+            manifest.append(ok(input, "aaaa", deleted));
+        }
+        Files.writeString(changed, "tampered", StandardOpenOption.APPEND);
+        Files.delete(deleted);
+
+        try (RunManifest manifest = RunManifest.open(manifestPath, 1)) {
+            assertThat(manifest.isComplete(changed, "aaaa", CONFIG), equalTo(false));
+            assertThat(manifest.isComplete(deleted, "aaaa", CONFIG), equalTo(false));
+        }
+    }
+
+    @Test
+    public void entriesAreFlushedInBatches() throws Exception {
+        Path manifestPath = tmp.resolve("manifest.tsv");
+        Path input = tmp.resolve("in.json");
+        Path output = writeOutput("out.json", "distorted");
+        try (RunManifest manifest = RunManifest.open(manifestPath, 2)) {
+            manifest.append(ok(input, "aaaa", output));
+            // Only the header is on the disk.
+            assertThat(Files.readAllLines(manifestPath), hasSize(1));
+
+            manifest.append(ok(input, "aaaa", output));
+            assertThat(Files.readAllLines(manifestPath), hasSize(3));
+        }
+    }
+
+    @Test
+    public void checksumOfFileMatchesChecksumOfBytes() throws Exception {
+        byte[] data = "distorted".getBytes(StandardCharsets.UTF_8);
+        Path output = writeOutput("out.json", "distorted");
+
+        assertThat(RunManifest.checksum(output), equalTo(RunManifest.checksum(data)));
+        assertThat(RunManifest.checksum(data), not(equalTo(RunManifest.checksum("distorted!".getBytes(StandardCharsets.UTF_8)))));
+    }
+
+    private Path writeOutput(String name, String content) throws Exception {
+        return Files.writeString(tmp.resolve(name), content);
+    }
+
+    private static RunManifest.Entry ok(Path input, String inputChecksum, Path output) throws Exception {
+        return new RunManifest.Entry(input, inputChecksum, CONFIG, 42L, output, RunManifest.checksum(output), RunManifest.Status.OK);
+    }
+}
@@ -0,0 +1,74 @@
+package org.monarchinitiative.phenoimp.cli.io;
+
+import org.phenopackets.schema.v2.Phenopacket;
+import org.phenopackets.schema.v2.core.*;
+
+/**
+ * Phenopackets for testing the readers and the writers.
+ */
+class TestPhenopackets {
+
+    private TestPhenopackets() {
+    }
+
+    static org.phenopackets.schema.v1.Phenopacket v1() {
+        return org.phenopackets.schema.v1.Phenopacket.newBuilder()
+                .setId("v1-phenopacket")
+                .setSubject(org.phenopackets.schema.v1.core.Individual.newBuilder().setId("individual"))
+                .addPhenotypicFeatures(org.phenopackets.schema.v1.core.PhenotypicFeature.newBuilder()
+                        .setType(org.phenopackets.schema.v1.core.OntologyClass.newBuilder().setId("HP:0001166").setLabel("Arachnodactyly")))
+                .addGenes(org.phenopackets.schema.v1.core.Gene.newBuilder().setId("HGNC:3603").setSymbol("FBN1"))
+                .setMetaData(org.phenopackets.schema.v1.core.MetaData.newBuilder().setCreatedBy("PhenoImp").setPhenopacketSchemaVersion("1.0"))
+                .build();
+    }
+
+    static Phenopacket v2() {
+        return v2WithoutMetaData().toBuilder()
+                .setMetaData(MetaData.newBuilder().setCreatedBy("PhenoImp").setPhenopacketSchemaVersion("2.0"))
+                .build();
+    }
+
+    /**
+     * A v2 phenopacket with medical actions, whose field number is used by v1 metadata.
+     */
+    static Phenopacket v2WithMedicalActions() {
+        return v2().toBuilder()
+                .addMedicalActions(MedicalAction.newBuilder()
+                        .setTreatment(Treatment.newBuilder()
+                                .setAgent(OntologyClass.newBuilder().setId("DrugCentral:1610").setLabel("losartan"))))
+                .addMedicalActions(MedicalAction.newBuilder()
+                        .setTreatmentTarget(OntologyClass.newBuilder().setId("OMIM:154700").setLabel("Marfan syndrome")))
+                .build();
+    }
+
+    /**
+     * A v2 phenopacket with a single medical action and with files, but without metadata.
+     */
+    static Phenopacket v2WithFiles() {
+        return v2WithoutMetaData().toBuilder()
+                .addMedicalActions(MedicalAction.newBuilder()
+                        .setTreatment(Treatment.newBuilder()
+                                .setAgent(OntologyClass.newBuilder().setId("DrugCentral:1610").setLabel("losartan"))))
+                .addFiles(File.newBuilder().setUri("file:///data/genome.vcf.gz"))
+                .build();
+    }
+
+    /**
+     * A v2 phenopacket with the fields whose numbers are used by other fields in v1.
+     */
+    static Phenopacket v2WithoutMetaData() {
+        return Phenopacket.newBuilder()
+                .setId("v2-phenopacket")
+                .setSubject(Individual.newBuilder().setId("individual"))
+                .addPhenotypicFeatures(PhenotypicFeature.newBuilder()
+                        .setType(OntologyClass.newBuilder().setId("HP:0001166").setLabel("Arachnodactyly")))
+                .addMeasurements(Measurement.newBuilder()
+                        .setAssay(OntologyClass.newBuilder().setId("LOINC:2093-3").setLabel("Cholesterol")))
+                .addInterpretations(Interpretation.newBuilder()
+                        .setId("interpretation")
+                        .setProgressStatus(Interpretation.ProgressStatus.SOLVED)
+                        .setDiagnosis(Diagnosis.newBuilder()
+                                .setDisease(OntologyClass.newBuilder().setId("OMIM:154700").setLabel("Marfan syndrome"))))
+                .build();
+    }
+}
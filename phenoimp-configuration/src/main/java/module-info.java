@@ -1,5 +1,6 @@
 module org.monarchinitiative.phenoimp.configuration {
     requires transitive org.monarchinitiative.phenoimp.core;
+    requires org.monarchinitiative.phenol.core;
     requires org.monarchinitiative.phenol.io;
     requires org.monarchinitiative.phenol.annotations;
     requires org.phenopackets.schema;
@@ -0,0 +1,368 @@
+package org.monarchinitiative.phenoimp.configuration;
+
+import org.monarchinitiative.phenol.io.OntologyLoader;
+import org.monarchinitiative.phenol.ontology.algo.OntologyAlgorithm;
+import org.monarchinitiative.phenol.ontology.data.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32C;
+
+import static org.monarchinitiative.phenol.constants.hpo.HpoSubOntologyRootTermIds.PHENOTYPIC_ABNORMALITY;
+
+/**
+ * A compact binary image of the HPO that is loaded without parsing <code>hp.json</code>.
+ * <p>
+ * The snapshot contains only the data used by the distortions: the term ids, labels, obsolete flags,
+ * alternate ids, the relationships, and the ontology metadata. The set of terms located in the
+ * <em>Phenotypic abnormality</em> subtree is precomputed and stored alongside the graph.
+ * The header records the checksum of the <code>hp.json</code> the snapshot was built from,
+ * see {@link #checksum(Path)}.
+ * <p>
+ * The snapshot is read through a memory-mapped buffer. The JSON parsing is skipped, however, the ontology
+ * is still re-assembled from the decoded terms and relationships, hence the loading time grows with the size
+ * of HPO. See <code>HpoLoadingBenchmark</code> for the comparison with <code>hp.json</code>.
+ */
+public class HpoSnapshot {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HpoSnapshot.class);
+
+    // "PHENOIMP" in ASCII.
+    private static final long MAGIC = 0x5048454E4F494D50L;
+    private static final int FORMAT_VERSION = 2;
+    private static final String NO_SOURCE = "";
+
+    private static final byte OBSOLETE = 0b01;
+    private static final byte PHENOTYPIC_ABNORMALITY_DESCENDANT = 0b10;
+
+    private final Ontology hpo;
+    private final Set<TermId> phenotypicAbnormalityDescendants;
+    private final String sourceChecksum;
+
+    /**
+     * Load HPO from <code>hp.json</code> of the data directory and store the snapshot next to it.
+     *
+     * @param dataDirectory path to the PhenoImp data directory.
+     * @return path to the written snapshot.
+     */
+    public static Path index(Path dataDirectory) throws IOException {
+        PhenoImpDataResolver dataResolver = new PhenoImpDataResolver(dataDirectory);
+        if (!Files.isRegularFile(dataResolver.hpJsonPath()))
+            throw new PhenoImpConfigurationException("Cannot index HPO, '%s' is missing.".formatted(dataResolver.hpJsonPath().toAbsolutePath()));
+
+        LOGGER.info("Loading HPO from {}.", dataResolver.hpJsonPath().toAbsolutePath());
+        String sourceChecksum = checksum(dataResolver.hpJsonPath());
+        Ontology hpo = OntologyLoader.loadOntology(dataResolver.hpJsonPath().toFile());
+
+        Path snapshotPath = dataResolver.hpSnapshotPath();
+        LOGGER.info("Writing HPO snapshot to {}.", snapshotPath.toAbsolutePath());
+        of(hpo, sourceChecksum).write(snapshotPath);
+        return snapshotPath;
+    }
+
+    /**
+     * Create a snapshot that is not tied to any <code>hp.json</code>, hence it is never up to date
+     * if <code>hp.json</code> is present.
+     */
+    public static HpoSnapshot of(Ontology hpo) {
+        return of(hpo, NO_SOURCE);
+    }
+
+    /**
+     * @param sourceChecksum checksum of the <code>hp.json</code> the <code>hpo</code> was loaded from.
+     */
+    public static HpoSnapshot of(Ontology hpo, String sourceChecksum) {
+        Set<TermId> descendants;
+        if (hpo.containsTerm(PHENOTYPIC_ABNORMALITY)) {
+            descendants = new HashSet<>(OntologyAlgorithm.getDescendents(hpo, PHENOTYPIC_ABNORMALITY));
+            // Phenotypic abnormality is not a descendant of itself.
+            descendants.remove(PHENOTYPIC_ABNORMALITY);
+        } else {
+            descendants = Set.of();
+        }
+        return new HpoSnapshot(hpo, descendants, sourceChecksum);
+    }
+
+    /**
+     * @return the checksum of the <code>hp.json</code> file: the file size and the CRC32C of the content.
+     */
+    public static String checksum(Path hpJson) throws IOException {
+        CRC32C crc = new CRC32C();
+        long size = 0;
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream is = Files.newInputStream(hpJson)) {
+            int n;
+            while ((n = is.read(buffer)) > 0) {
+                crc.update(buffer, 0, n);
+                size += n;
+            }
+        }
+        return "%d:%08x".formatted(size, crc.getValue());
+    }
+
+    /**
+     * Read the checksum of the <code>hp.json</code> the snapshot at <code>path</code> was built from,
+     * without reading the rest of the snapshot.
+     *
+     * @return the checksum or an empty string if the snapshot was not built from <code>hp.json</code>.
+     * @throws IOException if the file cannot be read or if it is not a valid snapshot.
+     */
+    public static String readSourceChecksum(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 256))) {
+            readHeader(in.readLong(), in.readInt());
+            int length = in.readInt();
+            if (length < 0 || length > 1024)
+                throw new IOException("Invalid source checksum length %d".formatted(length));
+            return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+        } catch (EOFException e) {
+            throw new IOException("Truncated HPO snapshot at %s".formatted(path.toAbsolutePath()), e);
+        }
+    }
+
+    /**
+     * Read the snapshot stored at given <code>path</code>.
+     *
+     * @throws IOException if the file cannot be read or if it is not a valid snapshot.
+     */
+    public static HpoSnapshot read(Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        try {
+            return decode(buffer);
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Corrupted HPO snapshot at %s".formatted(path.toAbsolutePath()), e);
+        }
+    }
+
+    private HpoSnapshot(Ontology hpo, Set<TermId> phenotypicAbnormalityDescendants, String sourceChecksum) {
+        this.hpo = Objects.requireNonNull(hpo);
+        this.phenotypicAbnormalityDescendants = Collections.unmodifiableSet(phenotypicAbnormalityDescendants);
+        this.sourceChecksum = Objects.requireNonNull(sourceChecksum);
+    }
+
+    public Ontology hpo() {
+        return hpo;
+    }
+
+    /**
+     * @return ids of the terms that are descendants of <em>Phenotypic abnormality</em>,
+     * excluding <em>Phenotypic abnormality</em> itself.
+     */
+    public Set<TermId> phenotypicAbnormalityDescendants() {
+        return phenotypicAbnormalityDescendants;
+    }
+
+    /**
+     * @return checksum of the <code>hp.json</code> the snapshot was built from, or an empty string if unknown.
+     */
+    public String sourceChecksum() {
+        return sourceChecksum;
+    }
+
+    /**
+     * Write the snapshot to given <code>path</code>. The file is first written into a temporary file
+     * which then replaces the target, so that a reader never sees a partially written snapshot.
+     */
+    public void write(Path path) throws IOException {
+        Path absolute = path.toAbsolutePath();
+        Path tmp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                encode(out);
+            }
+            try {
+                Files.move(tmp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, absolute, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private void encode(DataOutputStream out) throws IOException {
+        out.writeLong(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        writeString(out, sourceChecksum);
+
+        // 0 - Metadata.
+        Map<String, String> metaInfo = hpo.getMetaInfo();
+        out.writeInt(metaInfo.size());
+        for (Map.Entry<String, String> e : metaInfo.entrySet()) {
+            writeString(out, e.getKey());
+            writeString(out, e.getValue());
+        }
+
+        // 1 - Terms. The term map contains the alternate ids as well, hence deduplicating by the primary id.
+        Map<TermId, Term> terms = new LinkedHashMap<>();
+        for (Term term : hpo.getTerms())
+            terms.putIfAbsent(term.id(), term);
+
+        Map<TermId, Integer> termIndex = new HashMap<>(terms.size() * 2);
+        out.writeInt(terms.size());
+        for (Term term : terms.values()) {
+            termIndex.put(term.id(), termIndex.size());
+            writeString(out, term.id().getValue());
+            writeString(out, term.getName());
+
+            byte flags = 0;
+            if (term.isObsolete())
+                flags |= OBSOLETE;
+            if (phenotypicAbnormalityDescendants.contains(term.id()))
+                flags |= PHENOTYPIC_ABNORMALITY_DESCENDANT;
+            out.writeByte(flags);
+
+            List<TermId> altTermIds = term.getAltTermIds();
+            out.writeInt(altTermIds.size());
+            for (TermId altTermId : altTermIds)
+                writeString(out, altTermId.getValue());
+        }
+
+        // 2 - Ids of the relationship endpoints that are not among the terms.
+        Collection<Relationship> relationships = hpo.getRelationMap().values();
+        List<TermId> extraIds = new ArrayList<>();
+        for (Relationship relationship : relationships) {
+            for (TermId termId : List.of(relationship.getSource(), relationship.getTarget())) {
+                if (!termIndex.containsKey(termId)) {
+                    termIndex.put(termId, termIndex.size());
+                    extraIds.add(termId);
+                }
+            }
+        }
+        out.writeInt(extraIds.size());
+        for (TermId termId : extraIds) {
+            writeString(out, termId.getValue());
+            out.writeByte(phenotypicAbnormalityDescendants.contains(termId) ? PHENOTYPIC_ABNORMALITY_DESCENDANT : 0);
+        }
+
+        // 3 - Relationships, the term ids are referenced by their index.
+        out.writeInt(relationships.size());
+        for (Relationship relationship : relationships) {
+            out.writeInt(relationship.getId());
+            out.writeInt(termIndex.get(relationship.getSource()));
+            out.writeInt(termIndex.get(relationship.getTarget()));
+            writeString(out, relationship.getRelationshipType().getId());
+            writeString(out, relationship.getRelationshipType().getLabel());
+        }
+    }
+
+    private static HpoSnapshot decode(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < Long.BYTES + Integer.BYTES)
+            throw new IOException("Not an HPO snapshot");
+        readHeader(buffer.getLong(), buffer.getInt());
+
+        StringReader strings = new StringReader(buffer);
+        String sourceChecksum = strings.read();
+
+        // 0 - Metadata.
+        int nMeta = buffer.getInt();
+        Map<String, String> metaInfo = new HashMap<>(nMeta * 2);
+        for (int i = 0; i < nMeta; i++)
+            metaInfo.put(strings.read(), strings.read());
+
+        // 1 - Terms.
+        int nTerms = buffer.getInt();
+        List<TermId> termIds = new ArrayList<>(nTerms);
+        List<Term> terms = new ArrayList<>(nTerms);
+        Set<TermId> descendants = new HashSet<>(nTerms * 2);
+        for (int i = 0; i < nTerms; i++) {
+            TermId termId = TermId.of(strings.read());
+            String name = strings.read();
+            byte flags = buffer.get();
+            int nAlts = buffer.getInt();
+            List<TermId> altTermIds = new ArrayList<>(nAlts);
+            for (int j = 0; j < nAlts; j++)
+                altTermIds.add(TermId.of(strings.read()));
+
+            termIds.add(termId);
+            terms.add(Term.builder()
+                    .id(termId)
+                    .name(name)
+                    .obsolete((flags & OBSOLETE) != 0)
+                    .altTermIds(altTermIds)
+                    .build());
+            if ((flags & PHENOTYPIC_ABNORMALITY_DESCENDANT) != 0)
+                descendants.add(termId);
+        }
+
+        // 2 - Ids of the relationship endpoints that are not among the terms.
+        int nExtraIds = buffer.getInt();
+        for (int i = 0; i < nExtraIds; i++) {
+            TermId termId = TermId.of(strings.read());
+            termIds.add(termId);
+            if ((buffer.get() & PHENOTYPIC_ABNORMALITY_DESCENDANT) != 0)
+                descendants.add(termId);
+        }
+
+        // 3 - Relationships.
+        int nRelationships = buffer.getInt();
+        List<Relationship> relationships = new ArrayList<>(nRelationships);
+        for (int i = 0; i < nRelationships; i++) {
+            int id = buffer.getInt();
+            TermId source = termIds.get(buffer.getInt());
+            TermId target = termIds.get(buffer.getInt());
+            RelationshipType type = RelationshipType.of(strings.read(), strings.read());
+            relationships.add(new Relationship(source, target, id, type));
+        }
+
+        if (buffer.hasRemaining())
+            throw new IOException("Unexpected %d trailing bytes in HPO snapshot".formatted(buffer.remaining()));
+
+        Ontology hpo = ImmutableOntology.builder()
+                .metaInfo(metaInfo)
+                .terms(terms)
+                .relationships(relationships)
+                .build();
+        return new HpoSnapshot(hpo, descendants, sourceChecksum);
+    }
+
+    private static void readHeader(long magic, int formatVersion) throws IOException {
+        if (magic != MAGIC)
+            throw new IOException("Not an HPO snapshot");
+        if (formatVersion != FORMAT_VERSION)
+            throw new IOException("Unsupported HPO snapshot format version %d, expected %d".formatted(formatVersion, FORMAT_VERSION));
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Decodes length-prefixed UTF-8 strings, reusing a single scratch array.
+     */
+    private static class StringReader {
+
+        private final ByteBuffer buffer;
+        private byte[] scratch = new byte[256];
+
+        private StringReader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        private String read() {
+            int length = buffer.getInt();
+            if (length < 0)
+                throw new IllegalArgumentException("Negative string length " + length);
+            if (length > scratch.length)
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            buffer.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -1,54 +1,93 @@
 package org.monarchinitiative.phenoimp.configuration;
 
+import com.google.protobuf.Message;
 import org.monarchinitiative.phenoimp.core.DistortionRunner;
 import org.monarchinitiative.phenoimp.core.PhenoImp;
 import org.monarchinitiative.phenoimp.core.PhenoImpRuntimeException;
-import org.monarchinitiative.phenoimp.core.PhenopacketVersion;
+import org.monarchinitiative.phenoimp.core.metrics.DistortionMetrics;
+import org.monarchinitiative.phenoimp.core.metrics.InstrumentedDistortionRunner;
+import org.monarchinitiative.phenoimp.core.metrics.InstrumentedNoise;
 import org.monarchinitiative.phenoimp.core.noise.v2.AddNRandomPhenotypeTerms;
 import org.monarchinitiative.phenoimp.core.noise.v2.DropOneOfTwoRecessiveVariants;
-import org.monarchinitiative.phenoimp.core.noise.PhenopacketNoise;
+import org.monarchinitiative.phenoimp.core.noise.v2.FusedPhenotypicFeatureNoise;
+import org.monarchinitiative.phenoimp.core.noise.PhenopacketBuilderNoise;
+import org.monarchinitiative.phenoimp.core.noise.util.AliasTermSampler;
+import org.monarchinitiative.phenoimp.core.noise.util.HpoIndex;
+import org.monarchinitiative.phenoimp.core.noise.util.RecessiveDiseaseIndex;
+import org.monarchinitiative.phenoimp.core.noise.util.TermMessages;
 import org.monarchinitiative.phenoimp.core.noise.v2.ReplaceHpoWithParent;
-import org.monarchinitiative.phenoimp.core.runner.SequentialV1DistortionRunner;
-import org.monarchinitiative.phenoimp.core.runner.SequentialV2DistortionRunner;
+import org.monarchinitiative.phenoimp.core.runner.FusedV1DistortionRunner;
+import org.monarchinitiative.phenoimp.core.runner.FusedV2DistortionRunner;
 import org.monarchinitiative.phenol.annotations.formats.hpo.HpoDiseases;
 import org.monarchinitiative.phenol.annotations.io.hpo.HpoDiseaseLoader;
 import org.monarchinitiative.phenol.annotations.io.hpo.HpoDiseaseLoaderOptions;
 import org.monarchinitiative.phenol.annotations.io.hpo.HpoDiseaseLoaders;
 import org.monarchinitiative.phenol.io.OntologyLoader;
 import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.monarchinitiative.phenol.ontology.data.TermId;
 import org.phenopackets.schema.v2.Phenopacket;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
+/**
+ * Builder of {@link PhenoImp}s sharing the ontology and the other data.
+ * <p>
+ * The data are loaded in the background. HPO starts loading when the builder is created, and the data needed
+ * by the configured noise start loading on {@link #preload()} or {@link #build()}, whichever comes first.
+ * The independent files are loaded concurrently and {@link #build()} waits for the data needed by the noise.
+ */
 public class PhenoImpBuilder {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PhenoImpBuilder.class);
 
+    private static final AtomicInteger LOADER_COUNTER = new AtomicInteger();
+    // Daemon threads, a pending load does not keep the JVM alive.
+    private static final ExecutorService LOADERS = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "phenoimp-loader-" + LOADER_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private final PhenoImpDataResolver dataResolver;
 
-    private final Ontology hpo;
-    private volatile HpoDiseases diseases = null;
+    private final CompletableFuture<LoadedHpo> hpo;
+    // The loads are started on demand, the futures are guarded by `this`.
+    private CompletableFuture<HpoIndex> hpoIndex = null;
+    private CompletableFuture<TermMessages> termMessages = null;
+    private CompletableFuture<HpoDiseases> diseases = null;
+    private CompletableFuture<RecessiveDiseaseIndex> recessiveDiseases = null;
+    private final Map<RandomTermDistribution, CompletableFuture<AliasTermSampler>> termSamplers = new EnumMap<>(RandomTermDistribution.class);
     private int nRandomTerms = 0;
 
+    private RandomTermDistribution randomTermDistribution = RandomTermDistribution.UNIFORM;
+
     private int nHops = 0;
 
     private boolean dropArVariant = false;
 
     private Long randomSeed;
 
+    private DistortionMetrics metrics;
+
     public static PhenoImpBuilder builder(Path dataDirectory) throws PhenoImpConfigurationException {
         return new PhenoImpBuilder(dataDirectory);
     }
 
     private PhenoImpBuilder(Path dataDirectory)  {
         this.dataResolver = new PhenoImpDataResolver(Objects.requireNonNull(dataDirectory));
-        LOGGER.info("Loading HPO from {}.", dataResolver.hpJsonPath().toAbsolutePath());
-        this.hpo = OntologyLoader.loadOntology(dataResolver.hpJsonPath().toFile());
+        // All noise needs HPO.
+        this.hpo = CompletableFuture.supplyAsync(() -> loadHpo(dataResolver), LOADERS);
     }
 
     public PhenoImpBuilder addNRandomPhenotypeTerms(int nRandomTerms) {
@@ -56,6 +95,11 @@ public class PhenoImpBuilder {
         return this;
     }
 
+    public PhenoImpBuilder randomTermDistribution(RandomTermDistribution randomTermDistribution) {
+        this.randomTermDistribution = Objects.requireNonNull(randomTermDistribution);
+        return this;
+    }
+
     public PhenoImpBuilder nHopsForTermGeneralization(int nHops) {
         this.nHops = nHops;
         return this;
@@ -71,6 +115,22 @@ public class PhenoImpBuilder {
         return this;
     }
 
+    /**
+     * Record the latencies of the runners and the noises and the skips of the noises into the <code>metrics</code>.
+     * The runners are not instrumented if the metrics are <code>null</code>.
+     */
+    public PhenoImpBuilder metrics(DistortionMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Start loading the data needed by the configured noise in the background, e.g. while the inputs are resolved.
+     */
+    public PhenoImpBuilder preload() {
+        startLoading();
+        return this;
+    }
 
     public PhenoImp build() throws PhenoImpConfigurationException {
         // 0 - Check the input arguments.
@@ -92,87 +152,273 @@ public class PhenoImpBuilder {
                 randomSeed = new Random().nextLong();
         LOGGER.info("Using {} as the random seed.", randomSeed);
 
-        // 1 - Build distortion runners and wrap up.
-        return new PhenoImpImpl(Map.of(
-                PhenopacketVersion.V1, buildV1DistortionRunner(),
-                PhenopacketVersion.V2, buildV2DistortionRunner()
-        ));
+        // 1 - Wait for the data to report a missing or invalid file before distorting the phenopackets.
+        join(startLoading());
+
+        // 2 - Wrap up. The runners are built on demand, only for the phenopacket versions being distorted.
+        Settings settings = new Settings(nRandomTerms, randomTermDistribution, nHops, dropArVariant, randomSeed, metrics);
+        return new PhenoImpImpl(version -> switch (version) {
+            case V1 -> buildV1DistortionRunner(settings);
+            case V2 -> buildV2DistortionRunner(settings);
+            case UNKNOWN -> null;
+        }, randomSeed, fingerprint(settings));
+    }
+
+    /**
+     * Describe everything the distorted phenopackets depend on, except for the phenopackets and the seeds.
+     * The data are identified by the HPO metadata and term count, and by the header of <code>phenotype.hpoa</code>,
+     * the annotations are included only if the noise uses them.
+     */
+    private String fingerprint(Settings settings) {
+        StringBuilder fingerprint = new StringBuilder()
+                .append("nHops=").append(settings.nHops())
+                .append(";nRandomTerms=").append(settings.nRandomTerms())
+                .append(";randomTermDistribution=").append(settings.randomTermDistribution())
+                .append(";dropArVariant=").append(settings.dropArVariant())
+                .append(";randomSeed=").append(settings.randomSeed());
+
+        Ontology hpo = join(this.hpo).hpo();
+        fingerprint.append(";hpoTerms=").append(hpo.countAllTerms());
+        new TreeMap<>(hpo.getMetaInfo())
+                .forEach((key, value) -> fingerprint.append(";hpo.").append(key).append('=').append(value));
+
+        boolean usesAnnotations = settings.dropArVariant()
+                || settings.nRandomTerms() > 0 && settings.randomTermDistribution().needsDiseases();
+        if (usesAnnotations) {
+            try {
+                fingerprint.append(";hpoa=").append(dataResolver.hpoAnnotationVersion());
+            } catch (IOException e) {
+                throw new PhenoImpRuntimeException(e);
+            }
+        }
+        return fingerprint.toString();
     }
 
-    private DistortionRunner buildV1DistortionRunner() {
-        List<PhenopacketNoise<org.phenopackets.schema.v1.Phenopacket>> noise = new ArrayList<>();
+    private DistortionRunner buildV1DistortionRunner(Settings settings) {
+        int nRandomTerms = settings.nRandomTerms();
+        int nHops = settings.nHops();
+        long randomSeed = settings.randomSeed();
+        List<PhenopacketBuilderNoise<org.phenopackets.schema.v1.Phenopacket.Builder>> noise = new ArrayList<>();
         // 0 - Replace with parents or grandparents.
+        org.monarchinitiative.phenoimp.core.noise.v1.ReplaceHpoWithParent replaceHpoWithParent = null;
         if (nHops > 0) {
             LOGGER.info("Replacing each phenotype term with ancestor {} hops upstream.", nHops);
-            org.monarchinitiative.phenoimp.core.noise.v1.ReplaceHpoWithParent replaceHpoWithParent = new org.monarchinitiative.phenoimp.core.noise.v1.ReplaceHpoWithParent(hpo, nHops, randomSeed);
-            noise.add(replaceHpoWithParent);
+            replaceHpoWithParent = new org.monarchinitiative.phenoimp.core.noise.v1.ReplaceHpoWithParent(join(termMessages()), nHops, randomSeed);
+            if (settings.metrics() != null)
+                replaceHpoWithParent.setSkipListener(settings.metrics().skipListener("ReplaceHpoWithParent (v1)"));
         }
 
         // 1 - Add n random terms.
+        org.monarchinitiative.phenoimp.core.noise.v1.AddNRandomPhenotypeTerms addNRandomPhenotypeTerms = null;
         if (nRandomTerms > 0) {
-            LOGGER.info("Adding {} random phenotype terms.", nRandomTerms);
-            org.monarchinitiative.phenoimp.core.noise.v1.AddNRandomPhenotypeTerms addNRandomPhenotypeTerms = new org.monarchinitiative.phenoimp.core.noise.v1.AddNRandomPhenotypeTerms(hpo, nRandomTerms, randomSeed);
-            noise.add(addNRandomPhenotypeTerms);
+            LOGGER.info("Adding {} random phenotype terms drawn from {} distribution.", nRandomTerms, settings.randomTermDistribution());
+            addNRandomPhenotypeTerms = new org.monarchinitiative.phenoimp.core.noise.v1.AddNRandomPhenotypeTerms(join(termSampler(settings.randomTermDistribution())), join(termMessages()), nRandomTerms, randomSeed);
         }
 
+        // The phenotypic features are rewritten in a single pass.
+        if (replaceHpoWithParent != null || addNRandomPhenotypeTerms != null)
+            noise.add(instrument(new org.monarchinitiative.phenoimp.core.noise.v1.FusedPhenotypicFeatureNoise(replaceHpoWithParent, addNRandomPhenotypeTerms, randomSeed), "phenotypic features (v1)", settings));
+
         // 2 - Drop random variant for AR diseases.
-        if (dropArVariant) {
+        if (settings.dropArVariant()) {
             LOGGER.info("Dropping random variant for diseases segregating with autosomal recessive mode of inheritance.");
-            if (diseases == null) {
-                synchronized (this) {
-                    if (diseases == null) {
-                        try {
-                            diseases = loadHpoDiseases(hpo, dataResolver.hpoAnnotationPath());
-                        } catch (IOException e) {
-                            throw new PhenoImpRuntimeException(e);
-                        }
-                    }
-                }
-            }
-
-            org.monarchinitiative.phenoimp.core.noise.v1.DropOneOfTwoRecessiveVariants dropOneOfTwoRecessiveVariants = new org.monarchinitiative.phenoimp.core.noise.v1.DropOneOfTwoRecessiveVariants(hpo, diseases, randomSeed);
-            noise.add(dropOneOfTwoRecessiveVariants);
+            org.monarchinitiative.phenoimp.core.noise.v1.DropOneOfTwoRecessiveVariants dropOneOfTwoRecessiveVariants = new org.monarchinitiative.phenoimp.core.noise.v1.DropOneOfTwoRecessiveVariants(join(recessiveDiseases()), randomSeed);
+            if (settings.metrics() != null)
+                dropOneOfTwoRecessiveVariants.setSkipListener(settings.metrics().skipListener("DropOneOfTwoRecessiveVariants (v1)"));
+            noise.add(instrument(dropOneOfTwoRecessiveVariants, "recessive variants (v1)", settings));
         }
 
-        return new SequentialV1DistortionRunner(noise);
+        // The noises share a single phenopacket builder.
+        DistortionRunner runner = new FusedV1DistortionRunner(noise);
+        return settings.metrics() == null
+                ? runner
+                : new InstrumentedDistortionRunner(runner, settings.metrics().stage("distort (v1)"));
     }
 
-    private DistortionRunner buildV2DistortionRunner() {
-        List<PhenopacketNoise<Phenopacket>> noise = new ArrayList<>();
+    private DistortionRunner buildV2DistortionRunner(Settings settings) {
+        int nRandomTerms = settings.nRandomTerms();
+        int nHops = settings.nHops();
+        long randomSeed = settings.randomSeed();
+        List<PhenopacketBuilderNoise<Phenopacket.Builder>> noise = new ArrayList<>();
         // 0 - Replace with parents or grandparents.
+        ReplaceHpoWithParent replaceHpoWithParent = null;
         if (nHops > 0) {
             LOGGER.info("Replacing each phenotype term with ancestor {} hops upstream.", nHops);
-            ReplaceHpoWithParent replaceHpoWithParent = new ReplaceHpoWithParent(hpo, nHops, randomSeed);
-            noise.add(replaceHpoWithParent);
+            replaceHpoWithParent = new ReplaceHpoWithParent(join(termMessages()), nHops, randomSeed);
+            if (settings.metrics() != null)
+                replaceHpoWithParent.setSkipListener(settings.metrics().skipListener("ReplaceHpoWithParent (v2)"));
         }
 
         // 1 - Add n random terms.
+        AddNRandomPhenotypeTerms addNRandomPhenotypeTerms = null;
         if (nRandomTerms > 0) {
-            LOGGER.info("Adding {} random phenotype terms.", nRandomTerms);
-            AddNRandomPhenotypeTerms addNRandomPhenotypeTerms = new AddNRandomPhenotypeTerms(hpo, nRandomTerms, randomSeed);
-            noise.add(addNRandomPhenotypeTerms);
+            LOGGER.info("Adding {} random phenotype terms drawn from {} distribution.", nRandomTerms, settings.randomTermDistribution());
+            addNRandomPhenotypeTerms = new AddNRandomPhenotypeTerms(join(termSampler(settings.randomTermDistribution())), join(termMessages()), nRandomTerms, randomSeed);
         }
 
+        // The phenotypic features are rewritten in a single pass.
+        if (replaceHpoWithParent != null || addNRandomPhenotypeTerms != null)
+            noise.add(instrument(new FusedPhenotypicFeatureNoise(replaceHpoWithParent, addNRandomPhenotypeTerms, randomSeed), "phenotypic features (v2)", settings));
+
         // 2 - Drop random variant for AR diseases.
-        if (dropArVariant) {
+        if (settings.dropArVariant()) {
             LOGGER.info("Dropping random variant for diseases segregating with autosomal recessive mode of inheritance.");
-            if (diseases == null) {
-                synchronized (this) {
-                    if (diseases == null) {
-                        try {
-                            diseases = loadHpoDiseases(hpo, dataResolver.hpoAnnotationPath());
-                        } catch (IOException e) {
-                            throw new PhenoImpRuntimeException(e);
-                        }
-                    }
-                }
+            DropOneOfTwoRecessiveVariants dropOneOfTwoRecessiveVariants = new DropOneOfTwoRecessiveVariants(join(recessiveDiseases()), randomSeed);
+            if (settings.metrics() != null)
+                dropOneOfTwoRecessiveVariants.setSkipListener(settings.metrics().skipListener("DropOneOfTwoRecessiveVariants (v2)"));
+            noise.add(instrument(dropOneOfTwoRecessiveVariants, "recessive variants (v2)", settings));
+        }
+
+        // The noises share a single phenopacket builder.
+        DistortionRunner runner = new FusedV2DistortionRunner(noise);
+        return settings.metrics() == null
+                ? runner
+                : new InstrumentedDistortionRunner(runner, settings.metrics().stage("distort (v2)"));
+    }
+
+    private static <B extends Message.Builder> PhenopacketBuilderNoise<B> instrument(PhenopacketBuilderNoise<B> noise,
+                                                                                    String stage,
+                                                                                    Settings settings) {
+        return settings.metrics() == null
+                ? noise
+                : new InstrumentedNoise<>(noise, settings.metrics().stage(stage));
+    }
+
+    /**
+     * Start loading the data needed by the current settings.
+     *
+     * @return future completed when the data are loaded.
+     */
+    private synchronized CompletableFuture<?> startLoading() {
+        List<CompletableFuture<?>> needed = new ArrayList<>();
+        needed.add(hpo);
+        if (nHops > 0 || nRandomTerms > 0)
+            needed.add(termMessages());
+        if (nRandomTerms > 0)
+            needed.add(termSampler(randomTermDistribution));
+        if (dropArVariant)
+            needed.add(recessiveDiseases());
+        return CompletableFuture.allOf(needed.toArray(CompletableFuture[]::new));
+    }
+
+    private static LoadedHpo loadHpo(PhenoImpDataResolver dataResolver) {
+        HpoSnapshot snapshot = readHpoSnapshot(dataResolver);
+        return snapshot == null
+                ? new LoadedHpo(loadHpoJson(dataResolver), null)
+                : new LoadedHpo(snapshot.hpo(), snapshot.phenotypicAbnormalityDescendants());
+    }
+
+    /**
+     * @return the HPO snapshot or <code>null</code> if HPO should be loaded from <code>hp.json</code>.
+     */
+    private static HpoSnapshot readHpoSnapshot(PhenoImpDataResolver dataResolver) {
+        Path snapshot = dataResolver.hpSnapshotPath();
+        Path json = dataResolver.hpJsonPath();
+        if (dataResolver.hasUpToDateHpSnapshot()) {
+            LOGGER.info("Loading HPO snapshot from {}.", snapshot.toAbsolutePath());
+            try {
+                return HpoSnapshot.read(snapshot);
+            } catch (IOException e) {
+                if (!Files.isRegularFile(json))
+                    throw new PhenoImpConfigurationException("Unable to read HPO snapshot at %s".formatted(snapshot.toAbsolutePath()), e);
+                LOGGER.warn("Unable to read HPO snapshot: {}. Falling back to {}.", e.getMessage(), json.toAbsolutePath());
             }
+        } else if (Files.isRegularFile(snapshot)) {
+            LOGGER.warn("Ignoring HPO snapshot that was not built from the current {}. Run `index` to refresh the snapshot.", json.toAbsolutePath());
+        }
+        return null;
+    }
+
+    private static Ontology loadHpoJson(PhenoImpDataResolver dataResolver) {
+        Path json = dataResolver.hpJsonPath();
+        LOGGER.info("Loading HPO from {}.", json.toAbsolutePath());
+        return OntologyLoader.loadOntology(json.toFile());
+    }
+
+    private synchronized CompletableFuture<HpoIndex> hpoIndex() {
+        if (hpoIndex == null)
+            hpoIndex = hpo.thenApplyAsync(loaded -> loaded.phenotypicAbnormalityDescendants() == null
+                    ? HpoIndex.of(loaded.hpo())
+                    : HpoIndex.of(loaded.hpo(), loaded.phenotypicAbnormalityDescendants()), LOADERS);
+        return hpoIndex;
+    }
 
-            DropOneOfTwoRecessiveVariants dropOneOfTwoRecessiveVariants = new DropOneOfTwoRecessiveVariants(hpo, diseases, randomSeed);
-            noise.add(dropOneOfTwoRecessiveVariants);
+    /**
+     * @return interned messages of the HPO terms shared by the v1 and v2 runners of all built {@link PhenoImp}s.
+     */
+    private synchronized CompletableFuture<TermMessages> termMessages() {
+        if (termMessages == null)
+            termMessages = hpoIndex().thenApply(TermMessages::new);
+        return termMessages;
+    }
+
+    private synchronized CompletableFuture<HpoDiseases> diseases() {
+        if (diseases == null) {
+            Path hpoAssociation = dataResolver.hpoAnnotationPath();
+            // The disease loader needs the ontology.
+            diseases = hpo.thenApplyAsync(loaded -> {
+                try {
+                    return loadHpoDiseases(loaded.hpo(), hpoAssociation);
+                } catch (IOException e) {
+                    throw new PhenoImpRuntimeException(e);
+                }
+            }, LOADERS);
         }
+        return diseases;
+    }
 
-        return new SequentialV2DistortionRunner(noise);
+    /**
+     * @return index of the autosomal recessive diseases shared by the v1 and v2 runners of all built {@link PhenoImp}s.
+     */
+    private synchronized CompletableFuture<RecessiveDiseaseIndex> recessiveDiseases() {
+        if (recessiveDiseases == null) {
+            // Only the modes of inheritance are needed, hence not loading the full disease model.
+            // The annotations are read while HPO is being loaded.
+            Path hpoAssociation = dataResolver.hpoAnnotationPath();
+            recessiveDiseases = CompletableFuture.supplyAsync(() -> readModesOfInheritance(hpoAssociation), LOADERS)
+                    .thenCombineAsync(hpo, (modes, loaded) -> {
+                        RecessiveDiseaseIndex index = modes.resolve(loaded.hpo());
+                        LOGGER.info("Indexed {}/{} diseases segregating with autosomal recessive mode of inheritance.", index.recessiveCount(), index.size());
+                        return index;
+                    }, LOADERS);
+        }
+        return recessiveDiseases;
+    }
+
+    /**
+     * @return sampler of random phenotypic abnormalities shared by the v1 and v2 runners of all built {@link PhenoImp}s.
+     */
+    private synchronized CompletableFuture<AliasTermSampler> termSampler(RandomTermDistribution distribution) {
+        return termSamplers.computeIfAbsent(distribution, d -> switch (d) {
+            case UNIFORM -> hpoIndex().thenApplyAsync(AliasTermSampler::uniform, LOADERS);
+            case INFORMATION_CONTENT -> hpoIndex().thenCombineAsync(diseases(), AliasTermSampler::informationContent, LOADERS);
+            case ANNOTATION_FREQUENCY -> hpoIndex().thenCombineAsync(diseases(), AliasTermSampler::annotationFrequency, LOADERS);
+        });
+    }
+
+    /**
+     * Wait for the <code>future</code> and rethrow the failure of the load.
+     */
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException re)
+                throw re;
+            if (cause instanceof Error error)
+                throw error;
+            throw new PhenoImpRuntimeException(cause);
+        }
+    }
+
+    private static RecessiveDiseaseReader.ModesOfInheritance readModesOfInheritance(Path hpoAssociation) {
+        LOGGER.info("Reading modes of inheritance from {}.", hpoAssociation.toAbsolutePath());
+        try {
+            return RecessiveDiseaseReader.read(hpoAssociation);
+        } catch (IOException e) {
+            throw new PhenoImpRuntimeException(e);
+        }
     }
 
     private static HpoDiseases loadHpoDiseases(Ontology hpo, Path hpoAssociation) throws IOException {
@@ -181,4 +427,17 @@ public class PhenoImpBuilder {
         return loader.load(hpoAssociation);
     }
 
+    /**
+     * Noise settings captured by {@link #build()}, the runners are built later using these settings.
+     */
+    private record Settings(int nRandomTerms, RandomTermDistribution randomTermDistribution, int nHops, boolean dropArVariant, long randomSeed, DistortionMetrics metrics) {
+    }
+
+    /**
+     * @param phenotypicAbnormalityDescendants precomputed descendants of Phenotypic abnormality,
+     *                                         available if HPO was loaded from the snapshot, <code>null</code> otherwise.
+     */
+    private record LoadedHpo(Ontology hpo, Set<TermId> phenotypicAbnormalityDescendants) {
+    }
+
 }
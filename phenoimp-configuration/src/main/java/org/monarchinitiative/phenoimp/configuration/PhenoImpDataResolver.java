@@ -1,5 +1,8 @@
 package org.monarchinitiative.phenoimp.configuration;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.LinkedList;
@@ -18,12 +21,11 @@ public class PhenoImpDataResolver {
         this.dataDirectory = Objects.requireNonNull(dataDirectory);
 
         List<String> errors = new LinkedList<>();
-        List<Path> paths = List.of(hpJsonPath(), hpoAnnotationPath());
-        for (Path path : paths) {
-            if (!(Files.isRegularFile(path) && Files.isReadable(path))) {
-                errors.add(path.toFile().getName());
-            }
-        }
+        // HPO snapshot can stand in for the HPO JSON file.
+        if (!(isReadableFile(hpJsonPath()) || isReadableFile(hpSnapshotPath())))
+            errors.add(hpJsonPath().toFile().getName());
+        if (!isReadableFile(hpoAnnotationPath()))
+            errors.add(hpoAnnotationPath().toFile().getName());
 
         if (!errors.isEmpty()) {
             String missing = errors.stream().collect(Collectors.joining("', '", "'", "'"));
@@ -40,5 +42,52 @@ public class PhenoImpDataResolver {
         return dataDirectory.resolve("phenotype.hpoa");
     }
 
+    /**
+     * @return path to the binary HPO snapshot written by {@link HpoSnapshot#index(Path)}.
+     */
+    public Path hpSnapshotPath() {
+        return dataDirectory.resolve("hp.snapshot");
+    }
+
+    /**
+     * @return <code>true</code> if the HPO snapshot exists and it was built from the current <code>hp.json</code>,
+     * as told by the checksum in the snapshot header, or if there is no <code>hp.json</code>.
+     */
+    public boolean hasUpToDateHpSnapshot() {
+        Path snapshot = hpSnapshotPath();
+        if (!isReadableFile(snapshot))
+            return false;
+        Path json = hpJsonPath();
+        if (!Files.exists(json))
+            return true;
+        try {
+            return HpoSnapshot.readSourceChecksum(snapshot).equals(HpoSnapshot.checksum(json));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Get the version of <code>phenotype.hpoa</code> from the <code>#date</code> and <code>#version</code> header
+     * lines, or from the file size and modification time if the file has no such header.
+     */
+    public String hpoAnnotationVersion() throws IOException {
+        Path hpoa = hpoAnnotationPath();
+        StringBuilder version = new StringBuilder();
+        try (BufferedReader reader = Files.newBufferedReader(hpoa, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null && line.startsWith("#")) {
+                if (line.startsWith("#date:") || line.startsWith("#version:"))
+                    version.append(line.substring(1).strip()).append(';');
+            }
+        }
+        return version.isEmpty()
+                ? "size:%d;modified:%s".formatted(Files.size(hpoa), Files.getLastModifiedTime(hpoa))
+                : version.toString();
+    }
+
+    private static boolean isReadableFile(Path path) {
+        return Files.isRegularFile(path) && Files.isReadable(path);
+    }
 
 }
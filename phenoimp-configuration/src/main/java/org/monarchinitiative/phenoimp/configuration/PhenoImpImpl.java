@@ -7,18 +7,44 @@ import org.monarchinitiative.phenoimp.core.PhenopacketVersion;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
+/**
+ * {@link PhenoImp} that builds the distortion runner of a phenopacket version on the first request.
+ */
 class PhenoImpImpl implements PhenoImp {
 
-    private final Map<PhenopacketVersion, DistortionRunner> runnerMap;
+    private final Function<PhenopacketVersion, DistortionRunner> runnerFactory;
+    private final Map<PhenopacketVersion, DistortionRunner> runnerMap = new ConcurrentHashMap<>();
+    private final long randomSeed;
+    private final String fingerprint;
 
-    PhenoImpImpl(Map<PhenopacketVersion, DistortionRunner> runnerMap) {
-        this.runnerMap = Objects.requireNonNull(runnerMap);
+    /**
+     * @param runnerFactory function for building the runner of a phenopacket version,
+     *                      or for returning <code>null</code> if the version is not supported.
+     * @param fingerprint fingerprint of the noise settings, the seed, and the data versions,
+     *                    or <code>null</code> if the results should not be cached.
+     */
+    PhenoImpImpl(Function<PhenopacketVersion, DistortionRunner> runnerFactory, long randomSeed, String fingerprint) {
+        this.runnerFactory = Objects.requireNonNull(runnerFactory);
+        this.randomSeed = randomSeed;
+        this.fingerprint = fingerprint;
     }
 
     @Override
     public Optional<DistortionRunner> forPhenopacket(PhenopacketVersion version) {
-        return Optional.ofNullable(runnerMap.get(version));
+        return Optional.ofNullable(runnerMap.computeIfAbsent(version, runnerFactory));
+    }
+
+    @Override
+    public long randomSeed() {
+        return randomSeed;
+    }
+
+    @Override
+    public Optional<String> fingerprint() {
+        return Optional.ofNullable(fingerprint);
     }
 
 }
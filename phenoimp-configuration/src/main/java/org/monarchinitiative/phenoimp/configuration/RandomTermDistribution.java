@@ -0,0 +1,28 @@
+package org.monarchinitiative.phenoimp.configuration;
+
+/**
+ * Distribution of the random phenotypic abnormalities added to the phenopackets.
+ */
+public enum RandomTermDistribution {
+
+    /**
+     * Each phenotypic abnormality is equally likely.
+     */
+    UNIFORM,
+
+    /**
+     * The phenotypic abnormalities are weighted by their information content computed from the disease annotations,
+     * making the specific terms more likely than the general terms.
+     */
+    INFORMATION_CONTENT,
+
+    /**
+     * The phenotypic abnormalities are weighted by the number of the annotated diseases,
+     * making the terms commonly used for describing the diseases more likely.
+     */
+    ANNOTATION_FREQUENCY;
+
+    boolean needsDiseases() {
+        return this != UNIFORM;
+    }
+}
@@ -0,0 +1,141 @@
+package org.monarchinitiative.phenoimp.configuration;
+
+import org.monarchinitiative.phenoimp.core.noise.util.RecessiveDiseaseIndex;
+import org.monarchinitiative.phenol.annotations.io.hpo.DiseaseDatabase;
+import org.monarchinitiative.phenol.annotations.io.hpo.HpoDiseaseLoaderOptions;
+import org.monarchinitiative.phenol.constants.hpo.HpoModeOfInheritanceTermIds;
+import org.monarchinitiative.phenol.ontology.algo.OntologyAlgorithm;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Streaming reader of <code>phenotype.hpoa</code> that keeps only the disease ids and the modes of inheritance.
+ * <p>
+ * The reader does not build the disease annotations, hence it needs a fraction of the time and memory
+ * of {@link org.monarchinitiative.phenol.annotations.io.hpo.HpoDiseaseLoader}. The diseases are included
+ * from the same databases as by the default loader. The file is read without the ontology, e.g. while the ontology
+ * is being loaded, and the autosomal recessive diseases are resolved once the ontology is available.
+ */
+class RecessiveDiseaseReader {
+
+    private static final char DELIMITER = '\t';
+    private static final String NOT = "NOT";
+    private static final String INHERITANCE_ASPECT = "I";
+    // 0 - DatabaseID, 1 - DiseaseName, 2 - Qualifier, 3 - HPO_ID, ..., 10 - Aspect, 11 - Biocuration
+    private static final int QUALIFIER = 2, HPO_ID = 3, ASPECT = 10;
+
+    private static final Set<String> DATABASE_PREFIXES = HpoDiseaseLoaderOptions.defaultOptions().includedDatabases().stream()
+            .map(DiseaseDatabase::prefix)
+            .collect(Collectors.toUnmodifiableSet());
+
+    private RecessiveDiseaseReader() {
+    }
+
+    /**
+     * Read the disease ids and the ids of their modes of inheritance.
+     */
+    static ModesOfInheritance read(Path hpoa) throws IOException {
+        // Disease id -> ids of the inheritance terms.
+        Map<String, List<String>> diseases = new HashMap<>();
+        int[] starts = new int[ASPECT + 2];
+        try (BufferedReader reader = Files.newBufferedReader(hpoa, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.charAt(0) == '#')
+                    continue;
+                int nColumns = splitColumns(line, starts);
+                if (nColumns <= HPO_ID)
+                    continue;
+
+                String diseaseId = column(line, starts, 0);
+                int colon = diseaseId.indexOf(':');
+                // Skips the header of the newer releases as well.
+                if (colon < 0 || !DATABASE_PREFIXES.contains(diseaseId.substring(0, colon)))
+                    continue;
+
+                List<String> modes = diseases.computeIfAbsent(diseaseId, id -> new ArrayList<>(1));
+                if (nColumns > ASPECT
+                        && columnEquals(line, starts, ASPECT, INHERITANCE_ASPECT)
+                        && !columnEquals(line, starts, QUALIFIER, NOT))
+                    modes.add(column(line, starts, HPO_ID));
+            }
+        }
+        return new ModesOfInheritance(diseases);
+    }
+
+    /**
+     * Find the column starts of up to <code>starts.length - 1</code> columns, the start of the column after the last
+     * column is stored as well, as if the line was terminated by a delimiter.
+     *
+     * @return the number of the columns found.
+     */
+    private static int splitColumns(String line, int[] starts) {
+        int n = 0;
+        int start = 0;
+        while (n < starts.length - 1) {
+            starts[n++] = start;
+            int end = line.indexOf(DELIMITER, start);
+            if (end < 0) {
+                starts[n] = line.length() + 1;
+                return n;
+            }
+            start = end + 1;
+        }
+        starts[n] = start;
+        return n;
+    }
+
+    private static String column(String line, int[] starts, int i) {
+        return line.substring(starts[i], starts[i + 1] - 1);
+    }
+
+    private static boolean columnEquals(String line, int[] starts, int i, String value) {
+        return starts[i + 1] - 1 - starts[i] == value.length() && line.startsWith(value, starts[i]);
+    }
+
+    /**
+     * Disease ids and the ids of their modes of inheritance, as read from <code>phenotype.hpoa</code>.
+     */
+    static class ModesOfInheritance {
+
+        private final Map<String, List<String>> diseases;
+
+        private ModesOfInheritance(Map<String, List<String>> diseases) {
+            this.diseases = diseases;
+        }
+
+        /**
+         * Find the diseases segregating with a mode of inheritance that falls under
+         * <em>Autosomal recessive inheritance</em>.
+         */
+        RecessiveDiseaseIndex resolve(Ontology hpo) {
+            Set<String> recessiveModes = hpo.containsTerm(HpoModeOfInheritanceTermIds.AUTOSOMAL_RECESSIVE)
+                    ? OntologyAlgorithm.getDescendents(hpo, HpoModeOfInheritanceTermIds.AUTOSOMAL_RECESSIVE).stream()
+                    .map(TermId::getValue)
+                    .collect(Collectors.toSet())
+                    : Set.of();
+
+            Set<TermId> diseaseIds = new HashSet<>(diseases.size() * 2);
+            Set<TermId> recessiveDiseaseIds = new HashSet<>();
+            for (Map.Entry<String, List<String>> e : diseases.entrySet()) {
+                TermId diseaseId = TermId.of(e.getKey());
+                diseaseIds.add(diseaseId);
+                for (String mode : e.getValue()) {
+                    if (recessiveModes.contains(mode)) {
+                        recessiveDiseaseIds.add(diseaseId);
+                        break;
+                    }
+                }
+            }
+            return RecessiveDiseaseIndex.of(diseaseIds, recessiveDiseaseIds);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.monarchinitiative.phenoimp.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.monarchinitiative.phenol.io.OntologyLoader;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.monarchinitiative.phenol.ontology.data.Relationship;
+import org.monarchinitiative.phenol.ontology.data.Term;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class HpoSnapshotTest {
+
+    private static final Ontology HPO = OntologyLoader.loadOntology(TestBase.TEST_BASE.resolve("data").resolve("hp.json").toFile());
+
+    @TempDir
+    public Path tempDir;
+
+    @Test
+    public void roundTrip() throws Exception {
+        Path path = tempDir.resolve("hp.snapshot");
+        HpoSnapshot snapshot = HpoSnapshot.of(HPO);
+        snapshot.write(path);
+
+        HpoSnapshot read = HpoSnapshot.read(path);
+        Ontology hpo = read.hpo();
+
+        assertThat(hpo.getAllTermIds(), equalTo(HPO.getAllTermIds()));
+        assertThat(hpo.getNonObsoleteTermIds(), equalTo(HPO.getNonObsoleteTermIds()));
+        assertThat(hpo.getMetaInfo(), equalTo(HPO.getMetaInfo()));
+        assertThat(relationships(hpo), equalTo(relationships(HPO)));
+        for (Term term : HPO.getTerms()) {
+            assertThat(hpo.getTermLabel(term.id()), equalTo(HPO.getTermLabel(term.id())));
+        }
+
+        assertThat(read.phenotypicAbnormalityDescendants(), equalTo(snapshot.phenotypicAbnormalityDescendants()));
+        assertThat(read.phenotypicAbnormalityDescendants().contains(TermId.of("HP:0000924")), equalTo(true));
+        assertThat(read.phenotypicAbnormalityDescendants().contains(TermId.of("HP:0000118")), equalTo(false));
+    }
+
+    @Test
+    public void sourceChecksumIsStoredInTheHeader() throws Exception {
+        Path hpJson = TestBase.TEST_BASE.resolve("data").resolve("hp.json");
+        String checksum = HpoSnapshot.checksum(hpJson);
+        Path path = tempDir.resolve("hp.snapshot");
+        HpoSnapshot.of(HPO, checksum).write(path);
+
+        assertThat(HpoSnapshot.readSourceChecksum(path), equalTo(checksum));
+        assertThat(HpoSnapshot.read(path).sourceChecksum(), equalTo(checksum));
+
+        HpoSnapshot.of(HPO).write(path);
+        assertThat(HpoSnapshot.readSourceChecksum(path), equalTo(""));
+    }
+
+    @Test
+    public void readRejectsInvalidFile() throws Exception {
+        Path path = tempDir.resolve("hp.snapshot");
+        Files.writeString(path, "This is not an HPO snapshot");
+
+        assertThrows(IOException.class, () -> HpoSnapshot.read(path));
+    }
+
+    @Test
+    public void readRejectsTruncatedFile() throws Exception {
+        Path path = tempDir.resolve("hp.snapshot");
+        HpoSnapshot.of(HPO).write(path);
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length / 2));
+
+        assertThrows(IOException.class, () -> HpoSnapshot.read(path));
+    }
+
+    private static Set<String> relationships(Ontology hpo) {
+        return hpo.getRelationMap().values().stream()
+                .map(HpoSnapshotTest::summarize)
+                .collect(Collectors.toSet());
+    }
+
+    private static String summarize(Relationship r) {
+        return "%s-%s->%s".formatted(r.getSource().getValue(), r.getRelationshipType().getId(), r.getTarget().getValue());
+    }
+
+}
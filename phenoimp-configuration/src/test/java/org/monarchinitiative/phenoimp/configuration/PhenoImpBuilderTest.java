@@ -0,0 +1,80 @@
+package org.monarchinitiative.phenoimp.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.phenoimp.core.DistortionRunner;
+import org.monarchinitiative.phenoimp.core.PhenoImp;
+import org.monarchinitiative.phenoimp.core.PhenopacketVersion;
+import org.phenopackets.schema.v2.Phenopacket;
+
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class PhenoImpBuilderTest {
+
+    private static final PhenoImpBuilder BUILDER = PhenoImpBuilder.builder(TestBase.TEST_BASE.resolve("data"));
+
+    @Test
+    public void runnersAreBuiltOncePerVersion() {
+        PhenoImp phenoImp = BUILDER.addNRandomPhenotypeTerms(2)
+                .nHopsForTermGeneralization(1)
+                .setRandomSeed(42L)
+                .build();
+
+        DistortionRunner v2 = phenoImp.forPhenopacket(PhenopacketVersion.V2).orElseThrow();
+        assertThat(phenoImp.forPhenopacket(PhenopacketVersion.V2).orElseThrow(), sameInstance(v2));
+        assertThat(phenoImp.forPhenopacket(PhenopacketVersion.V1).isPresent(), equalTo(true));
+        assertThat(phenoImp.forPhenopacket(PhenopacketVersion.UNKNOWN).isPresent(), equalTo(false));
+        assertThat(phenoImp.randomSeed(), equalTo(42L));
+    }
+
+    @Test
+    public void builtPhenoImpKeepsItsSettings() {
+        PhenoImp first = BUILDER.addNRandomPhenotypeTerms(1)
+                .setRandomSeed(1L)
+                .build();
+        PhenoImp second = BUILDER.addNRandomPhenotypeTerms(3)
+                .setRandomSeed(2L)
+                .build();
+
+        // The runners are built after the builder was reconfigured.
+        Phenopacket pp = Phenopacket.newBuilder().setId("pp").build();
+        Phenopacket distorted = (Phenopacket) first.forPhenopacket(PhenopacketVersion.V2).orElseThrow().run(pp, new Random(1L));
+
+        assertThat(distorted.getPhenotypicFeaturesCount(), equalTo(1));
+        assertThat(first.randomSeed(), equalTo(1L));
+        assertThat(second.randomSeed(), equalTo(2L));
+    }
+
+    @Test
+    public void buildWaitsForThePreloadedData() {
+        PhenoImpBuilder builder = PhenoImpBuilder.builder(TestBase.TEST_BASE.resolve("data"))
+                .addNRandomPhenotypeTerms(2)
+                .randomTermDistribution(RandomTermDistribution.INFORMATION_CONTENT)
+                .dropOneOfTwoRecessiveVariants(true)
+                .setRandomSeed(42L)
+                .preload();
+
+        PhenoImp phenoImp = builder.build();
+
+        Phenopacket pp = Phenopacket.newBuilder().setId("pp").build();
+        Phenopacket distorted = (Phenopacket) phenoImp.forPhenopacket(PhenopacketVersion.V2).orElseThrow().run(pp, new Random(1L));
+        assertThat(distorted.getPhenotypicFeaturesCount(), equalTo(2));
+    }
+
+    @Test
+    public void fingerprintDependsOnTheSettingsAndTheSeed() {
+        PhenoImpBuilder builder = PhenoImpBuilder.builder(TestBase.TEST_BASE.resolve("data"));
+        String first = builder.nHopsForTermGeneralization(1).setRandomSeed(42L).build().fingerprint().orElseThrow();
+        String same = builder.nHopsForTermGeneralization(1).setRandomSeed(42L).build().fingerprint().orElseThrow();
+        String otherSeed = builder.nHopsForTermGeneralization(1).setRandomSeed(43L).build().fingerprint().orElseThrow();
+        String otherNoise = builder.nHopsForTermGeneralization(2).setRandomSeed(42L).build().fingerprint().orElseThrow();
+
+        assertThat(same, equalTo(first));
+        assertThat(otherSeed, not(equalTo(first)));
+        assertThat(otherNoise, not(equalTo(first)));
+        assertThat(first, not(containsString("hpoa")));
+        assertThat(builder.dropOneOfTwoRecessiveVariants(true).build().fingerprint().orElseThrow(), containsString("hpoa=date: 2021-08-02"));
+    }
+}
@@ -1,9 +1,11 @@
 package org.monarchinitiative.phenoimp.configuration;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.hamcrest.MatcherAssert.*;
@@ -20,6 +22,38 @@ public class PhenoImpDataResolverTest {
         assertThat(Files.isRegularFile(resolver.hpoAnnotationPath()), equalTo(true));
     }
 
+    @Test
+    public void snapshotStandsInForHpoJson(@TempDir Path dataDir) throws Exception {
+        Files.copy(TestBase.TEST_BASE.resolve("data").resolve("phenotype.hpoa"), dataDir.resolve("phenotype.hpoa"));
+        Files.createFile(dataDir.resolve("hp.snapshot"));
+
+        PhenoImpDataResolver resolver = new PhenoImpDataResolver(dataDir);
+
+        assertThat(resolver.hasUpToDateHpSnapshot(), equalTo(true));
+    }
+
+    @Test
+    public void snapshotIsStaleIfHpoJsonChanged(@TempDir Path dataDir) throws Exception {
+        Files.copy(TestBase.TEST_BASE.resolve("data").resolve("phenotype.hpoa"), dataDir.resolve("phenotype.hpoa"));
+        Path hpJson = Files.copy(TestBase.TEST_BASE.resolve("data").resolve("hp.json"), dataDir.resolve("hp.json"));
+        HpoSnapshot.index(dataDir);
+        PhenoImpDataResolver resolver = new PhenoImpDataResolver(dataDir);
+
+        assertThat(resolver.hasUpToDateHpSnapshot(), equalTo(true));
+
+        // Changing hp.json makes the snapshot stale even if the snapshot is newer.
+        Files.writeString(hpJson, Files.readString(hpJson) + "\n");
+        Files.setLastModifiedTime(hpJson, FileTime.fromMillis(0L));
+        assertThat(resolver.hasUpToDateHpSnapshot(), equalTo(false));
+    }
+
+    @Test
+    public void hpoAnnotationVersionIsReadFromTheHeader() throws Exception {
+        PhenoImpDataResolver resolver = new PhenoImpDataResolver(TestBase.TEST_BASE.resolve("data"));
+
+        assertThat(resolver.hpoAnnotationVersion(), equalTo("date: 2021-08-02;"));
+    }
+
     @Test
     public void error() {
         PhenoImpConfigurationException e = assertThrows(PhenoImpConfigurationException.class, () -> new PhenoImpDataResolver(Path.of("")));
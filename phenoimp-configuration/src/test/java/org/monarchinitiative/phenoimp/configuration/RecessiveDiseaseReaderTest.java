@@ -0,0 +1,49 @@
+package org.monarchinitiative.phenoimp.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.phenoimp.core.noise.util.RecessiveDiseaseIndex;
+import org.monarchinitiative.phenol.annotations.formats.hpo.HpoDisease;
+import org.monarchinitiative.phenol.annotations.formats.hpo.HpoDiseases;
+import org.monarchinitiative.phenol.annotations.io.hpo.HpoDiseaseLoaderOptions;
+import org.monarchinitiative.phenol.annotations.io.hpo.HpoDiseaseLoaders;
+import org.monarchinitiative.phenol.io.OntologyLoader;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+
+import java.nio.file.Path;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class RecessiveDiseaseReaderTest {
+
+    private static final Path DATA = TestBase.TEST_BASE.resolve("data");
+
+    @Test
+    public void matchesTheDiseasesLoadedByPhenol() throws Exception {
+        Ontology hpo = OntologyLoader.loadOntology(DATA.resolve("hp.json").toFile());
+        HpoDiseases diseases = HpoDiseaseLoaders.defaultLoader(hpo, HpoDiseaseLoaderOptions.defaultOptions())
+                .load(DATA.resolve("phenotype.hpoa"));
+        RecessiveDiseaseIndex expected = RecessiveDiseaseIndex.of(hpo, diseases);
+
+        RecessiveDiseaseIndex actual = RecessiveDiseaseReader.read(DATA.resolve("phenotype.hpoa")).resolve(hpo);
+
+        assertThat(actual.size(), equalTo(expected.size()));
+        assertThat(actual.recessiveCount(), equalTo(expected.recessiveCount()));
+        for (HpoDisease disease : diseases) {
+            TermId diseaseId = disease.id();
+            assertThat(actual.contains(diseaseId), equalTo(true));
+            assertThat(diseaseId.getValue(), actual.isAutosomalRecessive(diseaseId), equalTo(expected.isAutosomalRecessive(diseaseId)));
+        }
+    }
+
+    @Test
+    public void recessiveDisease() throws Exception {
+        Ontology hpo = OntologyLoader.loadOntology(DATA.resolve("hp.json").toFile());
+
+        RecessiveDiseaseIndex index = RecessiveDiseaseReader.read(DATA.resolve("phenotype.hpoa")).resolve(hpo);
+
+        assertThat(index.isAutosomalRecessive(TermId.of("OMIM:143890")), equalTo(true));
+        assertThat(index.isAutosomalRecessive(TermId.of("OMIM:154700")), equalTo(false));
+    }
+}
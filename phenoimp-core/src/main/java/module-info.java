@@ -6,11 +6,14 @@ module org.monarchinitiative.phenoimp.core {
     requires transitive com.google.protobuf;
 
     requires org.slf4j;
+    requires jdk.jfr;
 
     exports org.monarchinitiative.phenoimp.core;
+    exports org.monarchinitiative.phenoimp.core.metrics;
     exports org.monarchinitiative.phenoimp.core.noise to org.monarchinitiative.phenoimp.configuration;
-    exports org.monarchinitiative.phenoimp.core.runner to org.monarchinitiative.phenoimp.configuration;
+    exports org.monarchinitiative.phenoimp.core.runner;
     exports org.monarchinitiative.phenoimp.core.noise.v1 to org.monarchinitiative.phenoimp.configuration;
     exports org.monarchinitiative.phenoimp.core.noise.v2 to org.monarchinitiative.phenoimp.configuration;
+    exports org.monarchinitiative.phenoimp.core.noise.util to org.monarchinitiative.phenoimp.configuration;
 
 }
\ No newline at end of file
@@ -2,6 +2,8 @@ package org.monarchinitiative.phenoimp.core;
 
 import com.google.protobuf.Message;
 
+import java.util.Random;
+
 /**
  * Implementors can distort the provided phenopacket.
  */
@@ -9,4 +11,10 @@ public interface DistortionRunner {
 
     Message run(Message message);
 
+    /**
+     * Distort the phenopacket using the provided pseudorandom number generator instead of the generators
+     * of the individual noises. The method is thread-safe as long as each thread uses its own {@code random}.
+     */
+    Message run(Message message, Random random);
+
 }
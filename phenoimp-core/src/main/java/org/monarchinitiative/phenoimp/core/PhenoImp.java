@@ -6,4 +6,19 @@ public interface PhenoImp {
 
     Optional<DistortionRunner> forPhenopacket(PhenopacketVersion version);
 
+    /**
+     * @return the seed used to initialize the pseudorandom number generators of the distortion runners.
+     */
+    long randomSeed();
+
+    /**
+     * Get a fingerprint of the noise settings, the random seed, and the versions of the data. Two instances with
+     * the same fingerprint distort a phenopacket with a seed identically, hence their results can be cached.
+     *
+     * @return the fingerprint or an empty optional if the results should not be cached.
+     */
+    default Optional<String> fingerprint() {
+        return Optional.empty();
+    }
+
 }
@@ -1,7 +1,18 @@
 package org.monarchinitiative.phenoimp.core;
 
+import com.google.protobuf.Message;
+
 public enum PhenopacketVersion {
     UNKNOWN,
     V1,
-    V2
+    V2;
+
+    public static PhenopacketVersion of(Message pp) {
+        if (pp instanceof org.phenopackets.schema.v1.Phenopacket)
+            return V1;
+        else if (pp instanceof org.phenopackets.schema.v2.Phenopacket)
+            return V2;
+        else
+            return UNKNOWN;
+    }
 }
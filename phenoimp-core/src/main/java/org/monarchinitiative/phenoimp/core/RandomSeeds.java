@@ -0,0 +1,104 @@
+package org.monarchinitiative.phenoimp.core;
+
+import com.google.protobuf.Message;
+
+/**
+ * Static utility methods for deriving pseudorandom number generator seeds.
+ * <p>
+ * The derivation is stable across JVM runs and platforms, hence a derived seed can be recorded and used
+ * to reproduce a distortion later.
+ */
+public class RandomSeeds {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private RandomSeeds() {
+        // static utility class
+    }
+
+    /**
+     * Derive a seed for an item, such as a phenopacket, identified by a stable {@code key}.
+     *
+     * @param seed the global seed.
+     * @param key the item key, e.g. phenopacket ID.
+     * @return the derived seed.
+     */
+    public static long forKey(long seed, String key) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return mix(seed ^ mix(hash));
+    }
+
+    /**
+     * Derive a seed for distorting a v1 or v2 phenopacket, keyed by the phenopacket ID.
+     * All phenopackets with a blank ID get the same seed, use {@link #forPhenopacket(long, Message, String, long)}
+     * to tell them apart.
+     *
+     * @param seed the global seed.
+     * @param pp v1 or v2 phenopacket.
+     * @return the derived seed.
+     * @throws IllegalArgumentException if the message is not a v1 or v2 phenopacket.
+     */
+    public static long forPhenopacket(long seed, Message pp) {
+        return forPhenopacket(seed, pp, "", 0);
+    }
+
+    /**
+     * Derive a seed for distorting a v1 or v2 phenopacket, keyed by the phenopacket ID. A phenopacket with a blank ID
+     * is keyed by the {@code source} and the {@code index} of the record instead, hence the phenopackets without
+     * an ID are distorted with different random streams. Such a seed changes if the phenopacket is moved
+     * to another source or position.
+     *
+     * @param seed the global seed.
+     * @param pp v1 or v2 phenopacket.
+     * @param source name of the source the phenopacket was read from, e.g. the file name.
+     * @param index index of the phenopacket in the source.
+     * @return the derived seed.
+     * @throws IllegalArgumentException if the message is not a v1 or v2 phenopacket.
+     */
+    public static long forPhenopacket(long seed, Message pp, String source, long index) {
+        String id = phenopacketId(pp);
+        // No phenopacket ID contains the NUL character, hence the keys do not collide with the IDs.
+        return forKey(seed, id.isBlank() ? "\0" + source + "\0" + index : id);
+    }
+
+    /**
+     * Derive the global seed of a replicate. Replicate <code>0</code> uses the global seed as is, hence a run
+     * with a single replicate is the same as a run without replicates. Running with the derived seed
+     * as the global seed regenerates the replicate.
+     *
+     * @param seed the global seed.
+     * @param replicate non-negative replicate index.
+     * @return the seed of the replicate.
+     */
+    public static long forReplicate(long seed, int replicate) {
+        if (replicate < 0)
+            throw new IllegalArgumentException("Replicate must be non-negative, got %d".formatted(replicate));
+        if (replicate == 0)
+            return seed;
+        return mix(seed + replicate * GOLDEN_GAMMA);
+    }
+
+    private static String phenopacketId(Message pp) {
+        if (pp instanceof org.phenopackets.schema.v1.Phenopacket v1)
+            return v1.getId();
+        else if (pp instanceof org.phenopackets.schema.v2.Phenopacket v2)
+            return v2.getId();
+        else
+            throw new IllegalArgumentException("Provided message does not represent v1 or v2 phenopacket!");
+    }
+
+    /**
+     * The SplitMix64 finalizer.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
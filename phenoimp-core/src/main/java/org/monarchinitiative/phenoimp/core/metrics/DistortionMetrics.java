@@ -0,0 +1,142 @@
+package org.monarchinitiative.phenoimp.core.metrics;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Latencies of the stages of a distortion run and the counts of the skipped phenopackets and phenotypic features.
+ * <p>
+ * The latencies are recorded into a {@link LatencyHistogram} per stage and the skips are collected
+ * by {@link SkipDiagnostics}. Each latency and skip is also committed as a {@link StageEvent} or {@link SkipEvent},
+ * hence the run can be inspected in Java Flight Recorder. The events cost next to nothing unless the recording
+ * is enabled.
+ * <p>
+ * The class is thread-safe.
+ */
+public class DistortionMetrics {
+
+    private final Map<String, Stage> stages = new LinkedHashMap<>();
+    private final SkipDiagnostics diagnostics;
+
+    public DistortionMetrics() {
+        this(new SkipDiagnostics());
+    }
+
+    public DistortionMetrics(SkipDiagnostics diagnostics) {
+        this.diagnostics = Objects.requireNonNull(diagnostics);
+    }
+
+    /**
+     * Get the stage with the <code>name</code>, creating the stage on first use. The stage should be looked up once
+     * and then shared by the threads recording it.
+     */
+    public Stage stage(String name) {
+        Objects.requireNonNull(name);
+        synchronized (stages) {
+            return stages.computeIfAbsent(name, Stage::new);
+        }
+    }
+
+    /**
+     * Get the stages in the order of their creation.
+     */
+    public List<Stage> stages() {
+        synchronized (stages) {
+            return List.copyOf(stages.values());
+        }
+    }
+
+    /**
+     * Get a listener collecting the skips of the <code>noise</code>.
+     */
+    public SkipListener skipListener(String noise) {
+        return diagnostics.listener(noise);
+    }
+
+    public SkipDiagnostics diagnostics() {
+        return diagnostics;
+    }
+
+    /**
+     * Summarize the latencies and the throughput of the stages and the skips in human-readable tables.
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-48s %10s %10s %10s %10s %10s %10s %10s%n",
+                "Stage", "Count", "Per second", "Mean [us]", "p50 [us]", "p90 [us]", "p99 [us]", "Max [us]"));
+        for (Stage stage : stages()) {
+            LatencyHistogram latency = stage.latency();
+            report.append(String.format("%-48s %10d %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    stage.name(),
+                    latency.count(),
+                    stage.throughput(),
+                    latency.meanNanos() / 1e3,
+                    latency.percentileNanos(.5) / 1e3,
+                    latency.percentileNanos(.9) / 1e3,
+                    latency.percentileNanos(.99) / 1e3,
+                    latency.maxNanos() / 1e3));
+        }
+
+        String skips = diagnostics.summary();
+        if (!skips.isEmpty())
+            report.append(System.lineSeparator()).append(skips);
+        return report.toString();
+    }
+
+    /**
+     * A named stage, such as parsing a phenopacket or running a noise.
+     * <p>
+     * A recording thread calls {@link #start()} before and {@link #stop(long)} after the stage.
+     */
+    public static class Stage {
+
+        private final String name;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAccumulator firstStart = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        private final LongAccumulator lastStop = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+        private Stage(String name) {
+            this.name = name;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public LatencyHistogram latency() {
+            return latency;
+        }
+
+        /**
+         * @return the start of the stage to be passed to {@link #stop(long)}.
+         */
+        public long start() {
+            long start = System.nanoTime();
+            firstStart.accumulate(start);
+            return start;
+        }
+
+        public void stop(long start) {
+            long stop = System.nanoTime();
+            lastStop.accumulate(stop);
+            long nanos = stop - start;
+            latency.record(nanos);
+
+            StageEvent event = new StageEvent();
+            if (event.isEnabled()) {
+                event.stage = name;
+                event.latency = nanos;
+                event.commit();
+            }
+        }
+
+        /**
+         * @return the number of the stages completed per second between the first start and the last stop.
+         */
+        public double throughput() {
+            long count = latency.count();
+            long elapsed = lastStop.get() - firstStart.get();
+            return count == 0 || elapsed <= 0 ? 0. : count * 1e9 / elapsed;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.monarchinitiative.phenoimp.core.metrics;
+
+import com.google.protobuf.Message;
+import org.monarchinitiative.phenoimp.core.DistortionRunner;
+
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Runner recording the latency of the wrapped runner into a {@link DistortionMetrics.Stage}.
+ */
+public class InstrumentedDistortionRunner implements DistortionRunner {
+
+    private final DistortionRunner runner;
+    private final DistortionMetrics.Stage stage;
+
+    public InstrumentedDistortionRunner(DistortionRunner runner, DistortionMetrics.Stage stage) {
+        this.runner = Objects.requireNonNull(runner);
+        this.stage = Objects.requireNonNull(stage);
+    }
+
+    @Override
+    public Message run(Message message) {
+        long start = stage.start();
+        Message distorted = runner.run(message);
+        stage.stop(start);
+        return distorted;
+    }
+
+    @Override
+    public Message run(Message message, Random random) {
+        long start = stage.start();
+        Message distorted = runner.run(message, random);
+        stage.stop(start);
+        return distorted;
+    }
+}
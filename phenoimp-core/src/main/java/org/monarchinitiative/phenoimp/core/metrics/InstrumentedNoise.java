@@ -0,0 +1,35 @@
+package org.monarchinitiative.phenoimp.core.metrics;
+
+import com.google.protobuf.Message;
+import org.monarchinitiative.phenoimp.core.noise.PhenopacketBuilderNoise;
+
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Noise recording the latency of the wrapped noise into a {@link DistortionMetrics.Stage}.
+ */
+public class InstrumentedNoise<B extends Message.Builder> implements PhenopacketBuilderNoise<B> {
+
+    private final PhenopacketBuilderNoise<B> noise;
+    private final DistortionMetrics.Stage stage;
+
+    public InstrumentedNoise(PhenopacketBuilderNoise<B> noise, DistortionMetrics.Stage stage) {
+        this.noise = Objects.requireNonNull(noise);
+        this.stage = Objects.requireNonNull(stage);
+    }
+
+    @Override
+    public void distort(B builder) {
+        long start = stage.start();
+        noise.distort(builder);
+        stage.stop(start);
+    }
+
+    @Override
+    public void distort(B builder, Random random) {
+        long start = stage.start();
+        noise.distort(builder, random);
+        stage.stop(start);
+    }
+}
@@ -0,0 +1,90 @@
+package org.monarchinitiative.phenoimp.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of latencies in nanoseconds.
+ * <p>
+ * Each power of two is split into 4 buckets, hence a percentile is reported with the relative error below 25%.
+ * Recording a latency updates a few counters without allocating, and the histogram can be recorded
+ * by several threads concurrently.
+ */
+public class LatencyHistogram {
+
+    // 4 exact buckets for 0-3 ns and 4 buckets for each power of two from 2^2 to 2^62.
+    private static final int N_BUCKETS = 248;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(N_BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Long::max, 0L);
+
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0L);
+        buckets.incrementAndGet(bucket(value));
+        count.increment();
+        total.add(value);
+        max.accumulate(value);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long totalNanos() {
+        return total.sum();
+    }
+
+    public long maxNanos() {
+        return max.get();
+    }
+
+    public double meanNanos() {
+        long n = count();
+        return n == 0 ? 0. : (double) totalNanos() / n;
+    }
+
+    /**
+     * @param quantile quantile between <code>0</code> and <code>1</code>, such as <code>.99</code>.
+     * @return the upper bound of the bucket with the quantile or <code>0</code> if nothing was recorded.
+     */
+    public long percentileNanos(double quantile) {
+        if (quantile < 0. || quantile > 1.)
+            throw new IllegalArgumentException("Quantile must be in [0, 1], got %f".formatted(quantile));
+        long[] snapshot = new long[N_BUCKETS];
+        long n = 0;
+        for (int i = 0; i < N_BUCKETS; i++) {
+            snapshot[i] = buckets.get(i);
+            n += snapshot[i];
+        }
+        if (n == 0)
+            return 0L;
+
+        long rank = Math.max(1L, (long) Math.ceil(quantile * n));
+        long seen = 0;
+        for (int i = 0; i < N_BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank)
+                return Math.min(upperBound(i), maxNanos());
+        }
+        return maxNanos();
+    }
+
+    static int bucket(long value) {
+        if (value < 4)
+            return (int) value;
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (msb - 2)) & 3;
+        return (msb - 1) * 4 + sub;
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < 4)
+            return bucket;
+        int msb = bucket / 4 + 1;
+        long lower = (long) (4 + bucket % 4) << (msb - 2);
+        return lower + (1L << (msb - 2)) - 1;
+    }
+}
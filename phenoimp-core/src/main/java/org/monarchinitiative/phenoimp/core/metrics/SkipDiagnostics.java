@@ -0,0 +1,179 @@
+package org.monarchinitiative.phenoimp.core.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collector of the skips of the noises that counts the skips per reason and per id, and logs a bounded sample
+ * of the warnings.
+ * <p>
+ * The first {@link #sampleSize()} warnings of each noise and reason are logged as they happen, the rest
+ * are only counted and summarized by {@link #summary()}. A warning is formatted only if it is logged. Each skip
+ * is also committed as a {@link SkipEvent}. The class is thread-safe.
+ */
+public class SkipDiagnostics {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SkipDiagnostics.class);
+
+    public static final int DEFAULT_SAMPLE_SIZE = 10;
+    // The ids seen after the limit are counted together, the garbage ids should not exhaust the memory.
+    private static final int MAX_IDS_PER_REASON = 1_000;
+    private static final int N_TOP_IDS = 5;
+
+    private final int sampleSize;
+    private final Map<String, Map<SkipReason, ReasonCounts>> skips = new LinkedHashMap<>();
+
+    public SkipDiagnostics() {
+        this(DEFAULT_SAMPLE_SIZE);
+    }
+
+    /**
+     * @param sampleSize number of the warnings logged for each noise and reason.
+     */
+    public SkipDiagnostics(int sampleSize) {
+        if (sampleSize < 0)
+            throw new IllegalArgumentException("Sample size must be non-negative, got %d".formatted(sampleSize));
+        this.sampleSize = sampleSize;
+    }
+
+    public int sampleSize() {
+        return sampleSize;
+    }
+
+    /**
+     * Get a listener collecting the skips of the <code>noise</code>. The listeners of the same <code>noise</code>
+     * share the counts and the sample.
+     */
+    public SkipListener listener(String noise) {
+        Objects.requireNonNull(noise);
+        Map<SkipReason, ReasonCounts> counts;
+        synchronized (skips) {
+            counts = skips.computeIfAbsent(noise, n -> newReasonCounts());
+        }
+        return (reason, id) -> {
+            ReasonCounts reasonCounts = counts.get(reason);
+            reasonCounts.add(id);
+            if (reason.isWarning())
+                reasonCounts.warn(noise, reason, id, sampleSize);
+
+            SkipEvent event = new SkipEvent();
+            if (event.isEnabled()) {
+                event.noise = noise;
+                event.reason = reason.name();
+                event.id = id;
+                event.commit();
+            }
+        };
+    }
+
+    /**
+     * @return the number of times the <code>noise</code> skipped for the <code>reason</code>.
+     */
+    public long count(String noise, SkipReason reason) {
+        ReasonCounts counts = reasonCounts(noise, reason);
+        return counts == null ? 0L : counts.total.sum();
+    }
+
+    /**
+     * @return the number of times the <code>noise</code> skipped the <code>id</code> for the <code>reason</code>,
+     * or <code>0</code> if the id was seen after the limit of the distinct ids.
+     */
+    public long count(String noise, SkipReason reason, String id) {
+        ReasonCounts counts = reasonCounts(noise, reason);
+        LongAdder count = counts == null ? null : counts.byId.get(id);
+        return count == null ? 0L : count.sum();
+    }
+
+    /**
+     * Summarize the skips in a human-readable table with the most frequent ids of each noise and reason.
+     *
+     * @return the table or an empty string if nothing was skipped.
+     */
+    public String summary() {
+        StringBuilder summary = new StringBuilder();
+        synchronized (skips) {
+            for (Map.Entry<String, Map<SkipReason, ReasonCounts>> noise : skips.entrySet()) {
+                for (Map.Entry<SkipReason, ReasonCounts> e : noise.getValue().entrySet()) {
+                    long total = e.getValue().total.sum();
+                    if (total == 0)
+                        continue;
+                    if (summary.isEmpty())
+                        summary.append(String.format("%-40s %-52s %10s  %s%n", "Noise", "Reason", "Count", "Most frequent ids"));
+                    summary.append(String.format("%-40s %-52s %10d  %s%n",
+                            noise.getKey(), e.getKey().description(), total, e.getValue().topIds()));
+                }
+            }
+        }
+        return summary.toString();
+    }
+
+    private ReasonCounts reasonCounts(String noise, SkipReason reason) {
+        Map<SkipReason, ReasonCounts> counts;
+        synchronized (skips) {
+            counts = skips.get(noise);
+        }
+        return counts == null ? null : counts.get(reason);
+    }
+
+    private static Map<SkipReason, ReasonCounts> newReasonCounts() {
+        // All counts are created upfront, hence the map is only read by the recording threads.
+        Map<SkipReason, ReasonCounts> counts = new EnumMap<>(SkipReason.class);
+        for (SkipReason reason : SkipReason.values())
+            counts.put(reason, new ReasonCounts());
+        return counts;
+    }
+
+    private static class ReasonCounts {
+
+        private final LongAdder total = new LongAdder();
+        private final Map<String, LongAdder> byId = new ConcurrentHashMap<>();
+        private final LongAdder otherIds = new LongAdder();
+        private final AtomicInteger warned = new AtomicInteger();
+
+        private void add(String id) {
+            total.increment();
+            LongAdder count = byId.get(id);
+            if (count == null) {
+                if (byId.size() >= MAX_IDS_PER_REASON) {
+                    otherIds.increment();
+                    return;
+                }
+                count = byId.computeIfAbsent(id, i -> new LongAdder());
+            }
+            count.increment();
+        }
+
+        private void warn(String noise, SkipReason reason, String id, int sampleSize) {
+            // Checking first keeps the counter from growing once the sample is complete.
+            if (warned.get() > sampleSize)
+                return;
+            int n = warned.getAndIncrement();
+            if (n < sampleSize)
+                LOGGER.warn("{}: {} '{}'", noise, reason.description(), id);
+            else if (n == sampleSize)
+                LOGGER.warn("{}: {} ... suppressing further warnings, see the summary at the end of the run", noise, reason.description());
+        }
+
+        private String topIds() {
+            List<Map.Entry<String, Long>> counts = new ArrayList<>(byId.size());
+            for (Map.Entry<String, LongAdder> e : byId.entrySet())
+                counts.add(Map.entry(e.getKey(), e.getValue().sum()));
+            counts.sort(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+
+            StringJoiner joiner = new StringJoiner(", ");
+            for (Map.Entry<String, Long> e : counts.subList(0, Math.min(N_TOP_IDS, counts.size())))
+                joiner.add("%s (%d)".formatted(e.getKey(), e.getValue()));
+            if (counts.size() > N_TOP_IDS)
+                joiner.add("%d more".formatted(counts.size() - N_TOP_IDS));
+            long other = otherIds.sum();
+            if (other > 0)
+                joiner.add("%d skips of other ids".formatted(other));
+            return joiner.toString();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.monarchinitiative.phenoimp.core.metrics;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event of a noise skipping a phenopacket or a phenotypic feature.
+ */
+@Name("org.monarchinitiative.phenoimp.Skip")
+@Label("PhenoImp Skip")
+@Category("PhenoImp")
+@Description("A noise skipped a phenopacket or a phenotypic feature")
+@StackTrace(false)
+public class SkipEvent extends Event {
+
+    @Label("Noise")
+    public String noise;
+
+    @Label("Reason")
+    public String reason;
+
+    @Label("Id")
+    @Description("Id of the term, of the disease, or of the phenopacket")
+    public String id;
+
+}
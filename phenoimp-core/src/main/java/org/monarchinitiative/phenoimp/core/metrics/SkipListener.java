@@ -0,0 +1,22 @@
+package org.monarchinitiative.phenoimp.core.metrics;
+
+/**
+ * Listener notified when a noise skips a phenopacket or a phenotypic feature.
+ * <p>
+ * The listener is called by the worker threads, hence it must be thread-safe. The noise passes the ids
+ * it already has at hand, any formatting is left to the listener.
+ */
+@FunctionalInterface
+public interface SkipListener {
+
+    /**
+     * Listener that ignores the skips.
+     */
+    SkipListener NOOP = (reason, id) -> {};
+
+    /**
+     * @param id id of the term, of the disease, or of the phenopacket the <code>reason</code> applies to.
+     */
+    void skipped(SkipReason reason, String id);
+
+}
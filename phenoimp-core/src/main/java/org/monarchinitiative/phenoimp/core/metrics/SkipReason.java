@@ -0,0 +1,68 @@
+package org.monarchinitiative.phenoimp.core.metrics;
+
+/**
+ * Reasons for leaving a phenopacket or a phenotypic feature undistorted, or for dropping a phenotypic feature.
+ * <p>
+ * The reasons that point to a problem with the input or with the data are warnings, the others are expected
+ * outcomes of a noise and are only counted.
+ */
+public enum SkipReason {
+
+    /**
+     * The phenotypic feature id is not a valid term id. The feature is dropped.
+     */
+    NON_PARSABLE_TERM("dropped feature with non-parsable term id", true),
+    /**
+     * The phenotypic feature is not a descendant of <em>Phenotypic abnormality</em>. The feature is dropped.
+     */
+    NOT_PHENOTYPIC_ABNORMALITY("dropped feature that is not a phenotypic abnormality", true),
+    /**
+     * The phenotypic feature is <em>Phenotypic abnormality</em>, which often adds nothing to the analysis.
+     * The feature is left unchanged.
+     */
+    PHENOTYPIC_ABNORMALITY_ROOT("kept Phenotypic abnormality feature", true),
+    /**
+     * The ancestor of the phenotypic feature has no label, the term should be reported to HPO developers.
+     * The feature is dropped.
+     */
+    MISSING_TERM("dropped feature with missing ancestor term", true),
+    /**
+     * The phenopacket has other than one present disease.
+     */
+    DISEASE_COUNT("disease count other than 1", true),
+    /**
+     * The interpretations of the phenopacket do not have unique ids.
+     */
+    NON_UNIQUE_INTERPRETATION_IDS("non-unique interpretation ids", true),
+    /**
+     * The disease is not among the known diseases.
+     */
+    UNKNOWN_DISEASE("unknown disease", true),
+    /**
+     * The disease does not segregate with autosomal recessive mode of inheritance.
+     */
+    NOT_AUTOSOMAL_RECESSIVE("not autosomal recessive", false),
+    /**
+     * Other than two variants or variant interpretations are associated with the disease.
+     */
+    VARIANT_COUNT("variant count other than 2", true);
+
+    private final String description;
+    private final boolean warning;
+
+    SkipReason(String description, boolean warning) {
+        this.description = description;
+        this.warning = warning;
+    }
+
+    public String description() {
+        return description;
+    }
+
+    /**
+     * @return <code>true</code> if the reason should be reported to the user as a warning.
+     */
+    public boolean isWarning() {
+        return warning;
+    }
+}
@@ -0,0 +1,24 @@
+package org.monarchinitiative.phenoimp.core.metrics;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event of a stage of distorting a phenopacket, such as parsing, running a noise, or encoding.
+ * <p>
+ * The event is committed when the stage is over, hence the latency of the stage is in the {@link #latency} field.
+ */
+@Name("org.monarchinitiative.phenoimp.Stage")
+@Label("PhenoImp Stage")
+@Category("PhenoImp")
+@Description("A stage of distorting a phenopacket")
+@StackTrace(false)
+public class StageEvent extends Event {
+
+    @Label("Stage")
+    public String stage;
+
+    @Label("Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    public long latency;
+
+}
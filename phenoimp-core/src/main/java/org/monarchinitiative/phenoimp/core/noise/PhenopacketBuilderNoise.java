@@ -0,0 +1,30 @@
+package org.monarchinitiative.phenoimp.core.noise;
+
+import com.google.protobuf.Message;
+
+import java.util.Random;
+
+/**
+ * Implementors add noise to the phenopacket being built.
+ * <p>
+ * The noises of a runner share a single builder, hence the phenopacket is copied into the builder and built once,
+ * regardless of the number of the noises. The noise should only touch the fields it distorts.
+ */
+public interface PhenopacketBuilderNoise<B extends Message.Builder> {
+
+    /**
+     * Distort the phenopacket in the builder using the pseudorandom number generator of the noise instance.
+     * <p>
+     * The method is not thread-safe, and the result depends on the phenopackets distorted previously.
+     */
+    void distort(B builder);
+
+    /**
+     * Distort the phenopacket in the builder using the provided pseudorandom number generator.
+     * <p>
+     * The method does not touch the internal state of the noise instance, hence it can be called concurrently
+     * as long as each thread uses its own {@code builder} and {@code random}.
+     */
+    void distort(B builder, Random random);
+
+}
@@ -2,11 +2,26 @@ package org.monarchinitiative.phenoimp.core.noise;
 
 import com.google.protobuf.Message;
 
+import java.util.Random;
+
 /**
  * Implementors add noise to the provided phenopacket.
  */
 public interface PhenopacketNoise<T extends Message> {
 
+    /**
+     * Distort the phenopacket using the pseudorandom number generator of the noise instance.
+     * <p>
+     * The method is not thread-safe, and the result depends on the phenopackets distorted previously.
+     */
     T distort(T pp);
 
+    /**
+     * Distort the phenopacket using the provided pseudorandom number generator.
+     * <p>
+     * The method does not touch the internal state of the noise instance, hence it can be called concurrently
+     * as long as each thread uses its own {@code random}.
+     */
+    T distort(T pp, Random random);
+
 }
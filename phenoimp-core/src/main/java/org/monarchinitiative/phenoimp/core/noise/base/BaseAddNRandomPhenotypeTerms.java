@@ -2,49 +2,86 @@ package org.monarchinitiative.phenoimp.core.noise.base;
 
 import com.google.protobuf.Message;
 import org.monarchinitiative.phenoimp.core.noise.PhenopacketNoise;
-import org.monarchinitiative.phenoimp.core.noise.util.RandomOntologyTermGenerator;
-import org.monarchinitiative.phenol.constants.hpo.HpoSubOntologyRootTermIds;
+import org.monarchinitiative.phenoimp.core.noise.util.AliasTermSampler;
+import org.monarchinitiative.phenoimp.core.noise.util.HpoIndex;
 import org.monarchinitiative.phenol.ontology.data.Ontology;
-import org.monarchinitiative.phenol.ontology.data.Term;
 import org.monarchinitiative.phenol.ontology.data.TermId;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
-import java.util.Set;
+import java.util.*;
 
 public abstract class BaseAddNRandomPhenotypeTerms<T extends Message> implements PhenopacketNoise<T> {
 
-    private final RandomOntologyTermGenerator termGenerator;
+    private final AliasTermSampler sampler;
     private final int numberOfTermsToAdd;
+    private final Random random;
     /**
-     * Create an instance with randomness seeded by provided seed.
+     * Create an instance with randomness seeded by provided seed. The terms are drawn uniformly.
      *
      * @param ontology ontology to use.
      * @param numberOfTermsToAdd number of terms to add to the phenopacket.
      * @param randomSeed random seed
      */
     protected BaseAddNRandomPhenotypeTerms(Ontology ontology, int numberOfTermsToAdd, long randomSeed) {
-        Ontology phenotypicAbnormality = Objects.requireNonNull(ontology).subOntology(HpoSubOntologyRootTermIds.PHENOTYPIC_ABNORMALITY);
-        this.termGenerator = new RandomOntologyTermGenerator(phenotypicAbnormality, randomSeed);
+        this(AliasTermSampler.uniform(HpoIndex.of(ontology)), numberOfTermsToAdd, randomSeed);
+    }
+
+    /**
+     * Create an instance that draws the terms from the provided sampler. The sampler can be shared
+     * by several instances, e.g. by the v1 and v2 noise.
+     *
+     * @param sampler sampler of the phenotypic abnormality terms.
+     * @param numberOfTermsToAdd number of terms to add to the phenopacket.
+     * @param randomSeed random seed
+     */
+    protected BaseAddNRandomPhenotypeTerms(AliasTermSampler sampler, int numberOfTermsToAdd, long randomSeed) {
+        this.sampler = Objects.requireNonNull(sampler);
         this.numberOfTermsToAdd = numberOfTermsToAdd;
+        this.random = new Random(randomSeed);
+    }
+
+    @Override
+    public T distort(T pp) {
+        return distort(pp, random);
     }
 
+    /**
+     * Select distinct terms that are not present in the phenopacket. Fewer terms are selected if the ontology
+     * does not have enough terms.
+     * <p>
+     * Only the present terms are excluded, the selected terms can be ancestors or descendants of the present terms.
+     *
+     * @return indices of the selected terms in the {@link #index()}.
+     */
+    protected int[] selectRandomTerms(Collection<TermId> presentTermIds, Random random) {
+        HpoIndex index = sampler.index();
+        BitSet present = new BitSet(index.size());
+        for (TermId termId : presentTermIds) {
+            int term = index.indexOf(termId);
+            if (term >= 0)
+                present.set(term);
+        }
+        return selectRandomTerms(present, random);
+    }
 
-    protected List<Term> selectRandomTerms(Set<TermId> presentTermIds) {
-        List<Term> randomTerms = new ArrayList<>(numberOfTermsToAdd);
+    /**
+     * Select distinct terms that are not set in <code>present</code>. The selected terms are set in <code>present</code>.
+     *
+     * @param present indices of the terms present in the phenopacket.
+     * @return indices of the selected terms in the {@link #index()}.
+     */
+    protected int[] selectRandomTerms(BitSet present, Random random) {
+        return sampler.sample(numberOfTermsToAdd, present, random);
+    }
 
-        while (randomTerms.size() < numberOfTermsToAdd && termGenerator.hasNext()) {
-            Term term = termGenerator.next();
-            if (presentTermIds.contains(term.id()))
-                // we should not add already present term
-                // TODO - should we care if we're adding a parent/child of an already existing term?
-                continue;
+    protected HpoIndex index() {
+        return sampler.index();
+    }
 
-            presentTermIds.add(term.id()); // Ensure we do not choose the same term twice
-            randomTerms.add(term);
-        }
-        return randomTerms;
+    /**
+     * @return the pseudorandom number generator of the instance.
+     */
+    protected Random random() {
+        return random;
     }
 
 }
@@ -0,0 +1,265 @@
+package org.monarchinitiative.phenoimp.core.noise.util;
+
+import org.monarchinitiative.phenol.annotations.formats.hpo.HpoDisease;
+import org.monarchinitiative.phenol.annotations.formats.hpo.HpoDiseaseAnnotation;
+import org.monarchinitiative.phenol.annotations.formats.hpo.HpoDiseases;
+
+import java.util.*;
+
+/**
+ * Sampler of random <em>Phenotypic abnormality</em> descendants backed by a Walker/Vose alias table
+ * over the terms of the {@link HpoIndex}.
+ * <p>
+ * A draw takes constant time regardless of the weights: one uniform column of the table and one coin flip
+ * between the column term and its alias. The coin flip is skipped if all terms have the same weight, hence
+ * a uniform draw takes a single <code>nextInt</code>. Distinct terms are drawn by rejecting the excluded terms. The number
+ * of rejections is bounded and the remaining terms are drawn in a single weighted pass over the support
+ * once the bound is exceeded, e.g. if the excluded terms cover most of the probability mass.
+ * Both ways draw a term with the probability proportional to its weight among the terms not excluded,
+ * hence the bound does not change the distribution.
+ * <p>
+ * The sampler is immutable and safe to share between threads and between the phenopacket versions.
+ */
+public class AliasTermSampler {
+
+    /**
+     * Number of rejected draws tolerated per requested term before switching to the weighted pass.
+     */
+    private static final int REJECTIONS_PER_TERM = 8;
+
+    private final HpoIndex index;
+    // Terms with a positive weight, the `i`-th column of the alias table.
+    private final int[] support;
+    private final double[] weights;
+    private final double[] probabilities;
+    private final int[] aliases;
+    // All terms of the support have the same weight.
+    private final boolean uniform;
+
+    /**
+     * @return sampler drawing each <em>Phenotypic abnormality</em> descendant with the same probability.
+     */
+    public static AliasTermSampler uniform(HpoIndex index) {
+        double[] weights = new double[index.size()];
+        Arrays.fill(weights, 1.);
+        return new AliasTermSampler(index, weights);
+    }
+
+    /**
+     * Weigh the terms by the information content <code>-log(p)</code>, where <code>p</code> is the fraction
+     * of the diseases annotated with the term or with any of its descendants. The terms that annotate
+     * no disease are weighed as if they annotated one disease, making the specific terms the most likely.
+     */
+    public static AliasTermSampler informationContent(HpoIndex index, HpoDiseases diseases) {
+        int[] counts = propagatedAnnotationCounts(index, diseases);
+        double nDiseases = Math.max(diseases.size(), 1);
+        double[] weights = new double[index.size()];
+        for (int term = 0; term < weights.length; term++)
+            weights[term] = -Math.log(Math.max(counts[term], 1) / nDiseases);
+        return new AliasTermSampler(index, weights);
+    }
+
+    /**
+     * Weigh the terms by the number of diseases directly annotated with the term, making the terms commonly
+     * seen in the clinic the most likely. The terms that annotate no disease are never drawn.
+     */
+    public static AliasTermSampler annotationFrequency(HpoIndex index, HpoDiseases diseases) {
+        double[] weights = new double[index.size()];
+        for (HpoDisease disease : diseases) {
+            for (HpoDiseaseAnnotation annotation : disease.annotations()) {
+                if (!annotation.isPresent())
+                    continue;
+                int term = index.indexOf(annotation.id());
+                if (term >= 0)
+                    weights[term]++;
+            }
+        }
+        return new AliasTermSampler(index, weights);
+    }
+
+    /**
+     * @param weights non-negative weights of the terms of the <code>index</code>. Only the descendants
+     *                of <em>Phenotypic abnormality</em> with a label and a positive weight are drawn.
+     */
+    AliasTermSampler(HpoIndex index, double[] weights) {
+        this.index = Objects.requireNonNull(index);
+        if (weights.length != index.size())
+            throw new IllegalArgumentException("Expected %d weights, got %d".formatted(index.size(), weights.length));
+
+        // 0 - Select the support.
+        int[] support = new int[index.size()];
+        int size = 0;
+        double total = 0.;
+        for (int term = 0; term < weights.length; term++) {
+            double weight = weights[term];
+            if (weight < 0. || Double.isNaN(weight) || Double.isInfinite(weight))
+                throw new IllegalArgumentException("Weight of %s must be a non-negative number, got %f".formatted(index.termId(term), weight));
+            if (weight > 0. && index.isPhenotypicAbnormalityDescendant(term) && index.label(term) != null) {
+                support[size++] = term;
+                total += weight;
+            }
+        }
+        if (size == 0)
+            throw new IllegalArgumentException("No phenotypic abnormality term has a positive weight");
+        this.support = Arrays.copyOf(support, size);
+        this.weights = new double[size];
+        boolean uniform = true;
+        for (int i = 0; i < size; i++) {
+            this.weights[i] = weights[this.support[i]];
+            uniform &= this.weights[i] == this.weights[0];
+        }
+        this.uniform = uniform;
+
+        // 1 - Build the alias table using Vose's method.
+        this.probabilities = new double[size];
+        this.aliases = new int[size];
+        double[] scaled = new double[size];
+        int[] small = new int[size];
+        int[] large = new int[size];
+        int nSmall = 0, nLarge = 0;
+        for (int i = 0; i < size; i++) {
+            scaled[i] = this.weights[i] * size / total;
+            if (scaled[i] < 1.)
+                small[nSmall++] = i;
+            else
+                large[nLarge++] = i;
+        }
+        while (nSmall > 0 && nLarge > 0) {
+            int less = small[--nSmall];
+            int more = large[--nLarge];
+            probabilities[less] = scaled[less];
+            aliases[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1.;
+            if (scaled[more] < 1.)
+                small[nSmall++] = more;
+            else
+                large[nLarge++] = more;
+        }
+        // The columns left over differ from 1 only by the rounding errors.
+        while (nLarge > 0)
+            probabilities[large[--nLarge]] = 1.;
+        while (nSmall > 0)
+            probabilities[small[--nSmall]] = 1.;
+    }
+
+    public HpoIndex index() {
+        return index;
+    }
+
+    /**
+     * @return number of the terms that can be drawn.
+     */
+    public int size() {
+        return support.length;
+    }
+
+    /**
+     * Draw a term in constant time.
+     *
+     * @return index of the term in the {@link HpoIndex}.
+     */
+    public int next(Random random) {
+        int column = random.nextInt(support.length);
+        if (uniform)
+            return support[column];
+        int i = random.nextDouble() < probabilities[column] ? column : aliases[column];
+        return support[i];
+    }
+
+    /**
+     * Draw up to <code>n</code> distinct terms not present in <code>excluded</code>. Fewer terms are returned
+     * if less than <code>n</code> terms can be drawn. The drawn terms are added into <code>excluded</code>.
+     *
+     * @param excluded indices of the terms that must not be drawn, e.g. the terms already present in the phenopacket.
+     * @return indices of the drawn terms in the order of drawing.
+     */
+    public int[] sample(int n, BitSet excluded, Random random) {
+        if (n < 0)
+            throw new IllegalArgumentException("Number of terms must be non-negative, got %d".formatted(n));
+        int[] drawn = new int[n];
+        int size = 0;
+        int rejectionsLeft = REJECTIONS_PER_TERM * n;
+        while (size < n && rejectionsLeft > 0) {
+            int term = next(random);
+            if (excluded.get(term)) {
+                rejectionsLeft--;
+                continue;
+            }
+            excluded.set(term);
+            drawn[size++] = term;
+        }
+        if (size < n)
+            size = sampleRemaining(drawn, size, excluded, random);
+        return size == n ? drawn : Arrays.copyOf(drawn, size);
+    }
+
+    /**
+     * Draw the remaining terms without replacement in a single pass over the support, using the keys
+     * <code>u^(1/w)</code> of Efraimidis and Spirakis. Taking the terms with the largest keys is equivalent
+     * to drawing the terms one by one.
+     */
+    private int sampleRemaining(int[] drawn, int size, BitSet excluded, Random random) {
+        int n = drawn.length - size;
+        // Min-heap of the best `n` keys, the log-keys `log(u)/w` preserve the order of `u^(1/w)`.
+        PriorityQueue<Candidate> best = new PriorityQueue<>(n, Comparator.comparingDouble(Candidate::key));
+        for (int i = 0; i < support.length; i++) {
+            int term = support[i];
+            if (excluded.get(term))
+                continue;
+            double key = Math.log(1. - random.nextDouble()) / weights[i];
+            if (best.size() < n)
+                best.add(new Candidate(term, key));
+            else if (key > best.peek().key()) {
+                best.poll();
+                best.add(new Candidate(term, key));
+            }
+        }
+        Candidate[] chosen = best.toArray(Candidate[]::new);
+        Arrays.sort(chosen, Comparator.comparingDouble(Candidate::key).reversed());
+        for (Candidate candidate : chosen) {
+            excluded.set(candidate.term());
+            drawn[size++] = candidate.term();
+        }
+        return size;
+    }
+
+    /**
+     * @return the number of diseases annotated with each term or with any of its descendants.
+     */
+    private static int[] propagatedAnnotationCounts(HpoIndex index, HpoDiseases diseases) {
+        int[] counts = new int[index.size()];
+        // The last disease that reached the term, to count each disease once per term.
+        int[] lastSeen = new int[index.size()];
+        Arrays.fill(lastSeen, -1);
+        int[] stack = new int[index.size()];
+        int disease = 0;
+        for (HpoDisease hpoDisease : diseases) {
+            for (HpoDiseaseAnnotation annotation : hpoDisease.annotations()) {
+                if (!annotation.isPresent())
+                    continue;
+                int term = index.indexOf(annotation.id());
+                if (term < 0 || lastSeen[term] == disease)
+                    continue;
+                int top = 0;
+                stack[top++] = term;
+                lastSeen[term] = disease;
+                while (top > 0) {
+                    int current = stack[--top];
+                    counts[current]++;
+                    for (int i = 0; i < index.parentCount(current); i++) {
+                        int parent = index.parent(current, i);
+                        if (lastSeen[parent] != disease) {
+                            lastSeen[parent] = disease;
+                            stack[top++] = parent;
+                        }
+                    }
+                }
+            }
+            disease++;
+        }
+        return counts;
+    }
+
+    private record Candidate(int term, double key) {
+    }
+}
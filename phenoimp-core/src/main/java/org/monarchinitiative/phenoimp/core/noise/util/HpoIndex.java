@@ -0,0 +1,198 @@
+package org.monarchinitiative.phenoimp.core.noise.util;
+
+import org.jgrapht.graph.DefaultDirectedGraph;
+import org.monarchinitiative.phenol.graph.IdLabeledEdge;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.monarchinitiative.phenol.ontology.data.Relationship;
+import org.monarchinitiative.phenol.ontology.data.Term;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+
+import java.util.*;
+
+import static org.monarchinitiative.phenol.constants.hpo.HpoSubOntologyRootTermIds.PHENOTYPIC_ABNORMALITY;
+
+/**
+ * Integer-indexed view of the HPO graph for walking the ontology without allocations.
+ * <p>
+ * Each term of the ontology graph gets an index in <code>[0, size())</code>. The index provides the term parents
+ * sorted by the term id with <em>Phenotypic abnormality</em> excluded, the term label, and a flag indicating
+ * if the term is a descendant of <em>Phenotypic abnormality</em>.
+ * <p>
+ * The index is immutable and safe to share between threads and between the phenopacket versions.
+ */
+public class HpoIndex {
+
+    // Keyed by the term id value, hence the ids of the phenotypic features are looked up without parsing.
+    private final Map<String, Integer> termIdToIndex;
+    private final TermId[] termIds;
+    private final String[] labels;
+    // Parents of the term `i` are stored in `parents[parentOffsets[i]]` to `parents[parentOffsets[i + 1] - 1]`.
+    private final int[] parentOffsets;
+    private final int[] parents;
+    private final BitSet phenotypicAbnormalityDescendants;
+    private final int phenotypicAbnormality;
+
+    /**
+     * Build the index, finding the descendants of <em>Phenotypic abnormality</em> by traversing the graph.
+     */
+    public static HpoIndex of(Ontology hpo) {
+        return new HpoIndex(hpo, null);
+    }
+
+    /**
+     * Build the index using the precomputed descendants of <em>Phenotypic abnormality</em>,
+     * e.g. the descendants stored in HPO snapshot.
+     */
+    public static HpoIndex of(Ontology hpo, Set<TermId> phenotypicAbnormalityDescendants) {
+        return new HpoIndex(hpo, Objects.requireNonNull(phenotypicAbnormalityDescendants));
+    }
+
+    private HpoIndex(Ontology hpo, Set<TermId> phenotypicAbnormalityDescendants) {
+        DefaultDirectedGraph<TermId, IdLabeledEdge> graph = hpo.getGraph();
+        Map<Integer, Relationship> relationMap = hpo.getRelationMap();
+        Map<TermId, Term> termMap = hpo.getTermMap();
+
+        // 0 - Assign the indices.
+        this.termIds = graph.vertexSet().stream()
+                .sorted()
+                .toArray(TermId[]::new);
+        this.termIdToIndex = new HashMap<>(termIds.length * 2);
+        this.labels = new String[termIds.length];
+        for (int i = 0; i < termIds.length; i++) {
+            termIdToIndex.put(termIds[i].getValue(), i);
+            Term term = termMap.get(termIds[i]);
+            labels[i] = term == null ? null : term.getName();
+        }
+        this.phenotypicAbnormality = termIdToIndex.getOrDefault(PHENOTYPIC_ABNORMALITY.getValue(), -1);
+
+        // 1 - Parents connected by the propagating relationships, sorted by the term id.
+        this.parentOffsets = new int[termIds.length + 1];
+        int[] buffer = new int[termIds.length];
+        int size = 0;
+        for (int i = 0; i < termIds.length; i++) {
+            parentOffsets[i] = size;
+            SortedSet<TermId> termParents = new TreeSet<>(Comparator.comparing(TermId::getId));
+            for (IdLabeledEdge edge : graph.outgoingEdgesOf(termIds[i])) {
+                Relationship relationship = relationMap.get(edge.getId());
+                if (relationship == null || !relationship.getRelationshipType().propagates())
+                    continue;
+                TermId parent = (TermId) edge.getTarget();
+                if (!parent.equals(PHENOTYPIC_ABNORMALITY))
+                    termParents.add(parent);
+            }
+            if (size + termParents.size() > buffer.length)
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + termParents.size()));
+            for (TermId parent : termParents)
+                buffer[size++] = termIdToIndex.get(parent.getValue());
+        }
+        parentOffsets[termIds.length] = size;
+        this.parents = Arrays.copyOf(buffer, size);
+
+        // 2 - Descendants of Phenotypic abnormality.
+        this.phenotypicAbnormalityDescendants = new BitSet(termIds.length);
+        if (phenotypicAbnormalityDescendants == null) {
+            if (phenotypicAbnormality >= 0)
+                markDescendants(graph);
+        } else {
+            for (TermId termId : phenotypicAbnormalityDescendants) {
+                Integer idx = termIdToIndex.get(termId.getValue());
+                if (idx != null)
+                    this.phenotypicAbnormalityDescendants.set(idx);
+            }
+        }
+    }
+
+    private void markDescendants(DefaultDirectedGraph<TermId, IdLabeledEdge> graph) {
+        // Follow all edges, as does `OntologyAlgorithm.existsPath`.
+        Deque<TermId> queue = new ArrayDeque<>();
+        queue.add(PHENOTYPIC_ABNORMALITY);
+        while (!queue.isEmpty()) {
+            TermId current = queue.poll();
+            for (IdLabeledEdge edge : graph.incomingEdgesOf(current)) {
+                int child = termIdToIndex.get(((TermId) edge.getSource()).getValue());
+                if (!phenotypicAbnormalityDescendants.get(child)) {
+                    phenotypicAbnormalityDescendants.set(child);
+                    queue.add(termIds[child]);
+                }
+            }
+        }
+        // Phenotypic abnormality is not a descendant of itself, even if there was a cycle.
+        phenotypicAbnormalityDescendants.clear(phenotypicAbnormality);
+    }
+
+    public int size() {
+        return termIds.length;
+    }
+
+    /**
+     * @return index of the term or <code>-1</code> if the term is not present in the ontology graph.
+     */
+    public int indexOf(TermId termId) {
+        return indexOf(termId.getValue());
+    }
+
+    /**
+     * @param id term id value, such as <code>HP:0001166</code>.
+     * @return index of the term or <code>-1</code> if the term is not present in the ontology graph.
+     */
+    public int indexOf(String id) {
+        Integer idx = termIdToIndex.get(id);
+        return idx == null ? -1 : idx;
+    }
+
+    public TermId termId(int term) {
+        return termIds[term];
+    }
+
+    /**
+     * @return term label or <code>null</code> if the term is present in the graph but not in the term map.
+     */
+    public String label(int term) {
+        return labels[term];
+    }
+
+    /**
+     * @return index of <em>Phenotypic abnormality</em> or <code>-1</code> if the term is not in the ontology.
+     */
+    public int phenotypicAbnormality() {
+        return phenotypicAbnormality;
+    }
+
+    /**
+     * @return <code>true</code> if the term is a descendant of <em>Phenotypic abnormality</em>.
+     * <em>Phenotypic abnormality</em> is not a descendant of itself.
+     */
+    public boolean isPhenotypicAbnormalityDescendant(int term) {
+        return phenotypicAbnormalityDescendants.get(term);
+    }
+
+    public int parentCount(int term) {
+        return parentOffsets[term + 1] - parentOffsets[term];
+    }
+
+    /**
+     * @return the <code>i</code>-th parent of the term in the order of the term ids.
+     */
+    public int parent(int term, int i) {
+        return parents[parentOffsets[term] + i];
+    }
+
+    /**
+     * Walk <code>nHops</code> upwards, choosing a parent at random at each hop. The walk stops
+     * at <em>Phenotypic abnormality</em>.
+     *
+     * @return index of the ancestor.
+     */
+    public int randomAncestor(int term, int nHops, Random random) {
+        int current = term;
+        for (int i = 0; i < nHops; i++) {
+            int nParents = parentCount(current);
+            if (nParents == 0) {
+                // This happens if we reached Phenotypic abnormality and in that case further hopping has no point.
+                return phenotypicAbnormality;
+            }
+            current = parent(current, random.nextInt(nParents));
+        }
+        return current;
+    }
+}
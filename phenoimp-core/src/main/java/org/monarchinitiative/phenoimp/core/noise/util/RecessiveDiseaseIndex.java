@@ -0,0 +1,81 @@
+package org.monarchinitiative.phenoimp.core.noise.util;
+
+import org.monarchinitiative.phenol.annotations.formats.hpo.HpoDisease;
+import org.monarchinitiative.phenol.annotations.formats.hpo.HpoDiseases;
+import org.monarchinitiative.phenol.constants.hpo.HpoModeOfInheritanceTermIds;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+
+import java.util.*;
+
+/**
+ * Index of the known diseases and of the diseases segregating with a mode of inheritance that falls under
+ * <em>Autosomal recessive inheritance</em>.
+ * <p>
+ * The modes of inheritance are resolved once when building the index, hence checking a disease is a hash lookup.
+ * The index is immutable and safe to share between threads and between the phenopacket versions.
+ */
+public class RecessiveDiseaseIndex {
+
+    private final Set<TermId> diseaseIds;
+    private final Set<TermId> recessiveDiseaseIds;
+
+    /**
+     * Build the index, checking the ancestors of each distinct mode of inheritance once.
+     */
+    public static RecessiveDiseaseIndex of(Ontology hpo, HpoDiseases diseases) {
+        Objects.requireNonNull(hpo);
+        Map<TermId, Boolean> isRecessive = new HashMap<>();
+        Set<TermId> diseaseIds = new HashSet<>(diseases.size() * 2);
+        Set<TermId> recessiveDiseaseIds = new HashSet<>();
+        for (HpoDisease disease : diseases) {
+            diseaseIds.add(disease.id());
+            for (TermId moi : disease.modesOfInheritance()) {
+                boolean recessive = isRecessive.computeIfAbsent(moi,
+                        id -> hpo.getAncestorTermIds(id).contains(HpoModeOfInheritanceTermIds.AUTOSOMAL_RECESSIVE));
+                if (recessive) {
+                    recessiveDiseaseIds.add(disease.id());
+                    break;
+                }
+            }
+        }
+        return new RecessiveDiseaseIndex(diseaseIds, recessiveDiseaseIds);
+    }
+
+    /**
+     * @param diseaseIds ids of all known diseases.
+     * @param recessiveDiseaseIds ids of the diseases segregating with autosomal recessive mode of inheritance.
+     */
+    public static RecessiveDiseaseIndex of(Set<TermId> diseaseIds, Set<TermId> recessiveDiseaseIds) {
+        if (!diseaseIds.containsAll(recessiveDiseaseIds))
+            throw new IllegalArgumentException("Recessive diseases must be among the known diseases");
+        return new RecessiveDiseaseIndex(Set.copyOf(diseaseIds), Set.copyOf(recessiveDiseaseIds));
+    }
+
+    private RecessiveDiseaseIndex(Set<TermId> diseaseIds, Set<TermId> recessiveDiseaseIds) {
+        this.diseaseIds = diseaseIds;
+        this.recessiveDiseaseIds = recessiveDiseaseIds;
+    }
+
+    /**
+     * @return <code>true</code> if the disease is known.
+     */
+    public boolean contains(TermId diseaseId) {
+        return diseaseIds.contains(diseaseId);
+    }
+
+    /**
+     * @return <code>true</code> if the disease is known to segregate with autosomal recessive mode of inheritance.
+     */
+    public boolean isAutosomalRecessive(TermId diseaseId) {
+        return recessiveDiseaseIds.contains(diseaseId);
+    }
+
+    public int size() {
+        return diseaseIds.size();
+    }
+
+    public int recessiveCount() {
+        return recessiveDiseaseIds.size();
+    }
+}
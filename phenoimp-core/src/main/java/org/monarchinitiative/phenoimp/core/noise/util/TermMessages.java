@@ -0,0 +1,87 @@
+package org.monarchinitiative.phenoimp.core.noise.util;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Interned v1 and v2 <code>OntologyClass</code> and minimal <code>PhenotypicFeature</code> messages
+ * of the terms of an {@link HpoIndex}.
+ * <p>
+ * A message is built on first use and then shared by all noises using the same instance. The minimal feature
+ * has only the type, hence it is a present phenotypic abnormality with the label of the ontology.
+ * The messages are immutable, hence the class is thread-safe. Racing threads may build equal messages,
+ * and any of them is kept.
+ */
+public class TermMessages {
+
+    private final HpoIndex index;
+    private final AtomicReferenceArray<org.phenopackets.schema.v1.core.OntologyClass> v1OntologyClasses;
+    private final AtomicReferenceArray<org.phenopackets.schema.v1.core.PhenotypicFeature> v1PhenotypicFeatures;
+    private final AtomicReferenceArray<org.phenopackets.schema.v2.core.OntologyClass> v2OntologyClasses;
+    private final AtomicReferenceArray<org.phenopackets.schema.v2.core.PhenotypicFeature> v2PhenotypicFeatures;
+
+    public TermMessages(HpoIndex index) {
+        this.index = Objects.requireNonNull(index);
+        this.v1OntologyClasses = new AtomicReferenceArray<>(index.size());
+        this.v1PhenotypicFeatures = new AtomicReferenceArray<>(index.size());
+        this.v2OntologyClasses = new AtomicReferenceArray<>(index.size());
+        this.v2PhenotypicFeatures = new AtomicReferenceArray<>(index.size());
+    }
+
+    public HpoIndex index() {
+        return index;
+    }
+
+    public org.phenopackets.schema.v1.core.OntologyClass v1OntologyClass(int term) {
+        org.phenopackets.schema.v1.core.OntologyClass oc = v1OntologyClasses.get(term);
+        if (oc == null) {
+            oc = org.phenopackets.schema.v1.core.OntologyClass.newBuilder()
+                    .setId(index.termId(term).getValue())
+                    .setLabel(label(term))
+                    .build();
+            v1OntologyClasses.set(term, oc);
+        }
+        return oc;
+    }
+
+    public org.phenopackets.schema.v1.core.PhenotypicFeature v1PhenotypicFeature(int term) {
+        org.phenopackets.schema.v1.core.PhenotypicFeature pf = v1PhenotypicFeatures.get(term);
+        if (pf == null) {
+            pf = org.phenopackets.schema.v1.core.PhenotypicFeature.newBuilder()
+                    .setType(v1OntologyClass(term))
+                    .build();
+            v1PhenotypicFeatures.set(term, pf);
+        }
+        return pf;
+    }
+
+    public org.phenopackets.schema.v2.core.OntologyClass v2OntologyClass(int term) {
+        org.phenopackets.schema.v2.core.OntologyClass oc = v2OntologyClasses.get(term);
+        if (oc == null) {
+            oc = org.phenopackets.schema.v2.core.OntologyClass.newBuilder()
+                    .setId(index.termId(term).getValue())
+                    .setLabel(label(term))
+                    .build();
+            v2OntologyClasses.set(term, oc);
+        }
+        return oc;
+    }
+
+    public org.phenopackets.schema.v2.core.PhenotypicFeature v2PhenotypicFeature(int term) {
+        org.phenopackets.schema.v2.core.PhenotypicFeature pf = v2PhenotypicFeatures.get(term);
+        if (pf == null) {
+            pf = org.phenopackets.schema.v2.core.PhenotypicFeature.newBuilder()
+                    .setType(v2OntologyClass(term))
+                    .build();
+            v2PhenotypicFeatures.set(term, pf);
+        }
+        return pf;
+    }
+
+    private String label(int term) {
+        String label = index.label(term);
+        if (label == null)
+            throw new IllegalArgumentException("Term %s has no label".formatted(index.termId(term).getValue()));
+        return label;
+    }
+}
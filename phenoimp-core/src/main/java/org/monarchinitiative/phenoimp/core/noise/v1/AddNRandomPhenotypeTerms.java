@@ -1,25 +1,19 @@
 package org.monarchinitiative.phenoimp.core.noise.v1;
 
+import org.monarchinitiative.phenoimp.core.noise.PhenopacketBuilderNoise;
 import org.monarchinitiative.phenoimp.core.noise.base.BaseAddNRandomPhenotypeTerms;
-import org.monarchinitiative.phenol.base.PhenolRuntimeException;
+import org.monarchinitiative.phenoimp.core.noise.util.AliasTermSampler;
+import org.monarchinitiative.phenoimp.core.noise.util.TermMessages;
 import org.monarchinitiative.phenol.ontology.data.Ontology;
-import org.monarchinitiative.phenol.ontology.data.Term;
-import org.monarchinitiative.phenol.ontology.data.TermId;
 import org.phenopackets.schema.v1.Phenopacket;
-import org.phenopackets.schema.v1.core.OntologyClass;
 import org.phenopackets.schema.v1.core.PhenotypicFeature;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import java.time.Instant;
 import java.util.*;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
-public class AddNRandomPhenotypeTerms extends BaseAddNRandomPhenotypeTerms<Phenopacket> {
-
-    private static final Logger LOGGER = LoggerFactory.getLogger(org.monarchinitiative.phenoimp.core.noise.v2.AddNRandomPhenotypeTerms.class);
+public class AddNRandomPhenotypeTerms extends BaseAddNRandomPhenotypeTerms<Phenopacket> implements PhenopacketBuilderNoise<Phenopacket.Builder> {
 
+    private final TermMessages termMessages;
 
     /**
      * Create an instance with randomness seeded by the current epoch seconds.
@@ -40,47 +34,78 @@ public class AddNRandomPhenotypeTerms extends BaseAddNRandomPhenotypeTerms<Pheno
      */
     public AddNRandomPhenotypeTerms(Ontology ontology, int numberOfTermsToAdd, long randomSeed) {
         super(ontology, numberOfTermsToAdd, randomSeed);
+        this.termMessages = new TermMessages(index());
+    }
+
+    /**
+     * Create an instance that draws the terms from the shared sampler.
+     *
+     * @param sampler sampler of the phenotypic abnormality terms.
+     * @param numberOfTermsToAdd number of terms to add to the phenopacket.
+     * @param randomSeed random seed
+     */
+    public AddNRandomPhenotypeTerms(AliasTermSampler sampler, int numberOfTermsToAdd, long randomSeed) {
+        this(sampler, new TermMessages(sampler.index()), numberOfTermsToAdd, randomSeed);
+    }
+
+    /**
+     * Create an instance that draws the terms from the shared sampler and adds the shared features.
+     *
+     * @param sampler sampler of the phenotypic abnormality terms.
+     * @param termMessages interned messages of the terms of the sampler's HPO index.
+     * @param numberOfTermsToAdd number of terms to add to the phenopacket.
+     * @param randomSeed random seed
+     */
+    public AddNRandomPhenotypeTerms(AliasTermSampler sampler, TermMessages termMessages, int numberOfTermsToAdd, long randomSeed) {
+        super(sampler, numberOfTermsToAdd, randomSeed);
+        if (termMessages.index() != sampler.index())
+            throw new IllegalArgumentException("Term messages must be built for the HPO index of the sampler");
+        this.termMessages = termMessages;
     }
 
     @Override
-    public Phenopacket distort(Phenopacket pp) {
-        Set<TermId> presentTermIds = pp.getPhenotypicFeaturesList().stream()
-                .filter(pf -> !pf.getNegated())
-                .map(PhenotypicFeature::getType)
-                .map(toTermId())
-                .flatMap(Optional::stream)
-                .collect(Collectors.toCollection(HashSet::new));
+    public Phenopacket distort(Phenopacket pp, Random random) {
+        Phenopacket.Builder builder = pp.toBuilder();
+        distort(builder, random);
+        return builder.build();
+    }
 
-        List<Term> randomTerms = selectRandomTerms(presentTermIds);
+    @Override
+    public void distort(Phenopacket.Builder builder) {
+        distort(builder, random());
+    }
 
-        return Phenopacket.newBuilder(pp)
-                .addAllPhenotypicFeatures(toPhenotypicFeatures(randomTerms))
-                .build();
+    @Override
+    public void distort(Phenopacket.Builder builder, Random random) {
+        BitSet present = emptyTermSet();
+        for (PhenotypicFeature pf : builder.getPhenotypicFeaturesList())
+            markPresent(pf, present);
+        addRandomFeatures(builder, present, random);
     }
 
-    private static Function<OntologyClass, Optional<TermId>> toTermId() {
-        return id -> {
-            try {
-                return Optional.of(TermId.of(id.getId()));
-            } catch (PhenolRuntimeException e) {
-                LOGGER.warn("Dropping phenotype feature due to non-parsable ID: '{}'", id.getId());
-                return Optional.empty();
-            }
-        };
+    /**
+     * @return set for the indices of the terms present in a phenopacket.
+     */
+    BitSet emptyTermSet() {
+        return new BitSet(index().size());
     }
 
-    private static Iterable<? extends PhenotypicFeature> toPhenotypicFeatures(List<Term> randomTerms) {
-        return randomTerms.stream()
-                .map(termToPhenotypicFeature())
-                .toList();
+    /**
+     * Mark the term of the feature as present, unless the feature is negated. The terms missing in the ontology are ignored.
+     */
+    void markPresent(PhenotypicFeature pf, BitSet present) {
+        if (pf.getNegated())
+            return;
+        int term = index().indexOf(pf.getType().getId());
+        if (term >= 0)
+            present.set(term);
     }
 
-    private static Function<Term, PhenotypicFeature> termToPhenotypicFeature() {
-        return term -> PhenotypicFeature.newBuilder()
-                .setType(OntologyClass.newBuilder()
-                        .setId(term.id().getValue())
-                        .setLabel(term.getName())
-                        .build())
-                .build();
+    /**
+     * Add features with random terms that are not <code>present</code> into the <code>builder</code>.
+     */
+    void addRandomFeatures(Phenopacket.Builder builder, BitSet present, Random random) {
+        for (int term : selectRandomTerms(present, random))
+            builder.addPhenotypicFeatures(termMessages.v1PhenotypicFeature(term));
     }
 }
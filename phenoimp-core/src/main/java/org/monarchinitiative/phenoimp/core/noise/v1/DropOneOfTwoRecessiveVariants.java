@@ -1,19 +1,20 @@
 package org.monarchinitiative.phenoimp.core.noise.v1;
 
 import org.monarchinitiative.phenoimp.core.PhenoImpRuntimeException;
+import org.monarchinitiative.phenoimp.core.metrics.SkipDiagnostics;
+import org.monarchinitiative.phenoimp.core.metrics.SkipListener;
+import org.monarchinitiative.phenoimp.core.metrics.SkipReason;
+import org.monarchinitiative.phenoimp.core.noise.PhenopacketBuilderNoise;
 import org.monarchinitiative.phenoimp.core.noise.PhenopacketNoise;
-import org.monarchinitiative.phenol.annotations.formats.hpo.HpoDisease;
+import org.monarchinitiative.phenoimp.core.noise.util.RecessiveDiseaseIndex;
 import org.monarchinitiative.phenol.annotations.formats.hpo.HpoDiseases;
 import org.monarchinitiative.phenol.base.PhenolRuntimeException;
-import org.monarchinitiative.phenol.constants.hpo.HpoModeOfInheritanceTermIds;
 import org.monarchinitiative.phenol.ontology.data.Ontology;
 import org.monarchinitiative.phenol.ontology.data.TermId;
 import org.phenopackets.schema.v1.Phenopacket;
+import org.phenopackets.schema.v1.PhenopacketOrBuilder;
 import org.phenopackets.schema.v1.core.Disease;
 import org.phenopackets.schema.v1.core.OntologyClass;
-import org.phenopackets.schema.v1.core.Variant;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import java.time.Instant;
 import java.util.*;
@@ -27,84 +28,103 @@ import java.util.*;
  *     <li>The number of present diseases is not equal to <code>1</code>.</li>
  *     <li>The variant interpretations have non-unique ID. Note this can also happen if the IDs are unassigned as
  *     protobuf uses <code>""</code> by default for <code>str</code> fields.</li>
- *     <li>The disease is not known/present in among {@link #diseases}.</li>
+ *     <li>The disease is not known/present in among the diseases of the {@link RecessiveDiseaseIndex}.</li>
  *     <li>The number of variant interpretations associated with the disease is not equal to <code>2</code></li>
  * </ul>
- * The unmet condition is logged as a warning.
+ * The unmet condition is reported to the {@link SkipListener}, which logs a sample of the warnings by default.
  */
-public class DropOneOfTwoRecessiveVariants implements PhenopacketNoise<Phenopacket> {
+public class DropOneOfTwoRecessiveVariants implements PhenopacketNoise<Phenopacket>, PhenopacketBuilderNoise<Phenopacket.Builder> {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(DropOneOfTwoRecessiveVariants.class);
-
-    private final Ontology hpo;
-    private final HpoDiseases diseases;
+    private final RecessiveDiseaseIndex diseases;
     private final Random random;
+    // Logs a sample of the warnings unless the skips are collected by the caller.
+    private SkipListener skipListener = new SkipDiagnostics().listener("DropOneOfTwoRecessiveVariants (v1)");
 
     public DropOneOfTwoRecessiveVariants(Ontology hpo, HpoDiseases diseases) {
         this(hpo, diseases, Instant.now().getEpochSecond());
     }
 
     public DropOneOfTwoRecessiveVariants(Ontology hpo, HpoDiseases diseases, long randomSeed) {
-        this.hpo = Objects.requireNonNull(hpo);
+        this(RecessiveDiseaseIndex.of(hpo, diseases), randomSeed);
+    }
+
+    /**
+     * Create an instance that looks up the diseases in the shared index.
+     *
+     * @param diseases index of the known and of the autosomal recessive diseases.
+     * @param randomSeed random seed
+     */
+    public DropOneOfTwoRecessiveVariants(RecessiveDiseaseIndex diseases, long randomSeed) {
         this.diseases = Objects.requireNonNull(diseases);
         this.random = new Random(randomSeed);
     }
 
+    /**
+     * Set the listener notified when the noise leaves a phenopacket unchanged.
+     */
+    public void setSkipListener(SkipListener skipListener) {
+        this.skipListener = Objects.requireNonNull(skipListener);
+    }
+
     @Override
     public Phenopacket distort(Phenopacket pp) {
+        return distort(pp, random);
+    }
+
+    @Override
+    public Phenopacket distort(Phenopacket pp, Random random) {
+        int removed = variantToRemove(pp, random);
+        return removed < 0
+                ? pp
+                : pp.toBuilder().removeVariants(removed).build();
+    }
+
+    @Override
+    public void distort(Phenopacket.Builder builder) {
+        distort(builder, random);
+    }
+
+    @Override
+    public void distort(Phenopacket.Builder builder, Random random) {
+        int removed = variantToRemove(builder, random);
+        if (removed >= 0)
+            builder.removeVariants(removed);
+    }
+
+    /**
+     * @return index of the variant to remove or <code>-1</code> if the phenopacket should be left unchanged.
+     */
+    private int variantToRemove(PhenopacketOrBuilder pp, Random random) {
         // There is no such a thing as excluded disease in Phenopacket Schema v1.
         List<Disease> observedDiseases = pp.getDiseasesList();
 
         if (observedDiseases.size() != 1) {
-            LOGGER.warn("The disease count {}!=1, not removing of one of the recessive variants in {}", observedDiseases.size(), pp.getId());
-            return pp;
+            skipListener.skipped(SkipReason.DISEASE_COUNT, pp.getId());
+            return -1;
         }
 
         Disease disease = observedDiseases.get(0);
         TermId diseaseId = parseDiseaseId(disease.getTerm());
-        Optional<HpoDisease> diseaseOptional = diseases.diseaseById(diseaseId);
-
 
-        List<Variant> variants = pp.getVariantsList();
-        if (diseaseOptional.isEmpty()) {
-            LOGGER.warn("Unknown disease {} ({}), not removing one of the recessive variants in {}", disease.getTerm().getLabel(), disease.getTerm().getId(), pp.getId());
-            return pp;
+        if (!diseases.contains(diseaseId)) {
+            skipListener.skipped(SkipReason.UNKNOWN_DISEASE, disease.getTerm().getId());
+            return -1;
         }
 
-
         // Process the disease.
-        boolean hasAR = diseaseHasArModeOfInheritance(diseaseOptional.get());
+        boolean hasAR = diseases.isAutosomalRecessive(diseaseId);
         if (hasAR) {
-            if (variants.size() != 2) {
-                LOGGER.warn("The variant count {}!=2, not removing one of the recessive variants in {}", variants.size(), pp.getId());
-                return pp;
+            if (pp.getVariantsCount() != 2) {
+                skipListener.skipped(SkipReason.VARIANT_COUNT, pp.getId());
+                return -1;
             }
 
-            int idxOfRemoved = random.nextInt(variants.size());
-            List<Variant> passingVariants = new ArrayList<>(variants.size() - 1);
-            for (int i = 0; i < variants.size(); i++) {
-                if (i != idxOfRemoved)
-                    passingVariants.add(variants.get(i));
-            }
-
-
-            // Remove random interpretation.
-            return pp.toBuilder()
-                    .clearVariants()
-                    .addAllVariants(passingVariants)
-                    .build();
-        } else
-            return pp; // Nothing to be done in non-AR disease.
-    }
-
-    private boolean diseaseHasArModeOfInheritance(HpoDisease disease) {
-        for (TermId moi : disease.modesOfInheritance()) {
-            Set<TermId> ancestors = hpo.getAncestorTermIds(moi);
-            if (ancestors.contains(HpoModeOfInheritanceTermIds.AUTOSOMAL_RECESSIVE)) {
-                return true;
-            }
+            // Remove random variant.
+            return random.nextInt(pp.getVariantsCount());
         }
-        return false;
+        // Nothing to be done in non-AR disease.
+        skipListener.skipped(SkipReason.NOT_AUTOSOMAL_RECESSIVE, diseaseId.getValue());
+        return -1;
     }
 
     private static TermId parseDiseaseId(OntologyClass diseaseId) {
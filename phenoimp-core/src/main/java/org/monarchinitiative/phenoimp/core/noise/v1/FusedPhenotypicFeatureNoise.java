@@ -0,0 +1,84 @@
+package org.monarchinitiative.phenoimp.core.noise.v1;
+
+import org.monarchinitiative.phenoimp.core.noise.PhenopacketBuilderNoise;
+import org.monarchinitiative.phenoimp.core.noise.PhenopacketNoise;
+import org.phenopackets.schema.v1.Phenopacket;
+import org.phenopackets.schema.v1.core.PhenotypicFeature;
+
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * Noise that approximates the phenotypic features and adds random phenotypic abnormalities in a single pass
+ * over the features of the phenopacket.
+ * <p>
+ * The result is the same as of running {@link ReplaceHpoWithParent} and then {@link AddNRandomPhenotypeTerms}
+ * with the same pseudorandom number generator. However, the phenopacket is rebuilt once, and the terms present
+ * in the phenopacket are collected while approximating the features.
+ */
+public class FusedPhenotypicFeatureNoise implements PhenopacketNoise<Phenopacket>, PhenopacketBuilderNoise<Phenopacket.Builder> {
+
+    // Either noise can be `null`, but not both.
+    private final ReplaceHpoWithParent replaceHpoWithParent;
+    private final AddNRandomPhenotypeTerms addNRandomPhenotypeTerms;
+    private final Random random;
+
+    /**
+     * @param replaceHpoWithParent noise for approximating the features or <code>null</code> if the features are kept.
+     * @param addNRandomPhenotypeTerms noise for adding random features or <code>null</code> if no features are added.
+     * @param randomSeed random seed
+     */
+    public FusedPhenotypicFeatureNoise(ReplaceHpoWithParent replaceHpoWithParent,
+                                       AddNRandomPhenotypeTerms addNRandomPhenotypeTerms,
+                                       long randomSeed) {
+        if (replaceHpoWithParent == null && addNRandomPhenotypeTerms == null)
+            throw new IllegalArgumentException("At least one phenotypic feature noise must be provided");
+        this.replaceHpoWithParent = replaceHpoWithParent;
+        this.addNRandomPhenotypeTerms = addNRandomPhenotypeTerms;
+        this.random = new Random(randomSeed);
+    }
+
+    @Override
+    public Phenopacket distort(Phenopacket pp) {
+        return distort(pp, random);
+    }
+
+    @Override
+    public Phenopacket distort(Phenopacket pp, Random random) {
+        Phenopacket.Builder builder = pp.toBuilder();
+        distort(builder, random);
+        return builder.build();
+    }
+
+    @Override
+    public void distort(Phenopacket.Builder builder) {
+        distort(builder, random);
+    }
+
+    @Override
+    public void distort(Phenopacket.Builder builder, Random random) {
+        if (replaceHpoWithParent == null) {
+            addNRandomPhenotypeTerms.distort(builder, random);
+            return;
+        }
+        if (addNRandomPhenotypeTerms == null) {
+            replaceHpoWithParent.distort(builder, random);
+            return;
+        }
+
+        // Approximate the features in place and remove the dropped features from the end.
+        BitSet present = addNRandomPhenotypeTerms.emptyTermSet();
+        int count = builder.getPhenotypicFeaturesCount();
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            PhenotypicFeature approximated = replaceHpoWithParent.approximate(builder.getPhenotypicFeatures(i), random);
+            if (approximated != null) {
+                builder.setPhenotypicFeatures(kept++, approximated);
+                addNRandomPhenotypeTerms.markPresent(approximated, present);
+            }
+        }
+        for (int i = count - 1; i >= kept; i--)
+            builder.removePhenotypicFeatures(i);
+        addNRandomPhenotypeTerms.addRandomFeatures(builder, present, random);
+    }
+}
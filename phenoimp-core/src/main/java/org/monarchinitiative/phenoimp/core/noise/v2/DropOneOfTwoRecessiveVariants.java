@@ -1,23 +1,24 @@
 package org.monarchinitiative.phenoimp.core.noise.v2;
 
 import org.monarchinitiative.phenoimp.core.PhenoImpRuntimeException;
+import org.monarchinitiative.phenoimp.core.metrics.SkipDiagnostics;
+import org.monarchinitiative.phenoimp.core.metrics.SkipListener;
+import org.monarchinitiative.phenoimp.core.metrics.SkipReason;
+import org.monarchinitiative.phenoimp.core.noise.PhenopacketBuilderNoise;
 import org.monarchinitiative.phenoimp.core.noise.PhenopacketNoise;
-import org.monarchinitiative.phenol.annotations.formats.hpo.HpoDisease;
+import org.monarchinitiative.phenoimp.core.noise.util.RecessiveDiseaseIndex;
 import org.monarchinitiative.phenol.annotations.formats.hpo.HpoDiseases;
 import org.monarchinitiative.phenol.base.PhenolRuntimeException;
-import org.monarchinitiative.phenol.constants.hpo.HpoModeOfInheritanceTermIds;
 import org.monarchinitiative.phenol.ontology.data.Ontology;
 import org.monarchinitiative.phenol.ontology.data.TermId;
 import org.phenopackets.schema.v2.Phenopacket;
+import org.phenopackets.schema.v2.PhenopacketOrBuilder;
 import org.phenopackets.schema.v2.core.Disease;
 import org.phenopackets.schema.v2.core.Interpretation;
 import org.phenopackets.schema.v2.core.OntologyClass;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import java.time.Instant;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * This class expects to get a phenopacket with a single disease with AR mode of inheritance and two variant
@@ -28,99 +29,129 @@ import java.util.stream.Collectors;
  *     <li>The number of present diseases is not equal to <code>1</code>.</li>
  *     <li>The variant interpretations have non-unique ID. Note this can also happen if the IDs are unassigned as
  *     protobuf uses <code>""</code> by default for <code>str</code> fields.</li>
- *     <li>The disease is not known/present in among {@link #diseases}.</li>
+ *     <li>The disease is not known/present in among the diseases of the {@link RecessiveDiseaseIndex}.</li>
  *     <li>The number of variant interpretations associated with the disease is not equal to <code>2</code></li>
  * </ul>
- * The unmet condition is logged as a warning.
+ * The unmet condition is reported to the {@link SkipListener}, which logs a sample of the warnings by default.
  */
-public class DropOneOfTwoRecessiveVariants implements PhenopacketNoise<Phenopacket> {
+public class DropOneOfTwoRecessiveVariants implements PhenopacketNoise<Phenopacket>, PhenopacketBuilderNoise<Phenopacket.Builder> {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(DropOneOfTwoRecessiveVariants.class);
-
-    private final Ontology hpo;
-    private final HpoDiseases diseases;
+    private final RecessiveDiseaseIndex diseases;
     private final Random random;
+    // Logs a sample of the warnings unless the skips are collected by the caller.
+    private SkipListener skipListener = new SkipDiagnostics().listener("DropOneOfTwoRecessiveVariants (v2)");
 
     public DropOneOfTwoRecessiveVariants(Ontology hpo, HpoDiseases diseases) {
         this(hpo, diseases, Instant.now().getEpochSecond());
     }
 
     public DropOneOfTwoRecessiveVariants(Ontology hpo, HpoDiseases diseases, long randomSeed) {
-        this.hpo = Objects.requireNonNull(hpo);
+        this(RecessiveDiseaseIndex.of(hpo, diseases), randomSeed);
+    }
+
+    /**
+     * Create an instance that looks up the diseases in the shared index.
+     *
+     * @param diseases index of the known and of the autosomal recessive diseases.
+     * @param randomSeed random seed
+     */
+    public DropOneOfTwoRecessiveVariants(RecessiveDiseaseIndex diseases, long randomSeed) {
         this.diseases = Objects.requireNonNull(diseases);
         this.random = new Random(randomSeed);
     }
 
+    /**
+     * Set the listener notified when the noise leaves a phenopacket unchanged.
+     */
+    public void setSkipListener(SkipListener skipListener) {
+        this.skipListener = Objects.requireNonNull(skipListener);
+    }
+
     @Override
     public Phenopacket distort(Phenopacket pp) {
+        return distort(pp, random);
+    }
+
+    @Override
+    public Phenopacket distort(Phenopacket pp, Random random) {
+        int removed = interpretationToRemove(pp, random);
+        return removed < 0
+                ? pp
+                : pp.toBuilder().removeInterpretations(removed).build();
+    }
+
+    @Override
+    public void distort(Phenopacket.Builder builder) {
+        distort(builder, random);
+    }
+
+    @Override
+    public void distort(Phenopacket.Builder builder, Random random) {
+        int removed = interpretationToRemove(builder, random);
+        if (removed >= 0)
+            builder.removeInterpretations(removed);
+    }
+
+    /**
+     * @return index of the interpretation to remove or <code>-1</code> if the phenopacket should be left unchanged.
+     */
+    private int interpretationToRemove(PhenopacketOrBuilder pp, Random random) {
         List<Disease> observedDiseases = pp.getDiseasesList().stream()
                 .filter(d -> !d.getExcluded())
                 .toList();
 
         if (observedDiseases.size() != 1) {
-            LOGGER.warn("The disease count {}!=1, not removing of one of the recessive variants in {}", observedDiseases.size(), pp.getId());
-            return pp;
+            skipListener.skipped(SkipReason.DISEASE_COUNT, pp.getId());
+            return -1;
         }
 
         // Check the interpretations have IDs unique within the phenopacket.
-        Map<String, Long> ids = pp.getInterpretationsList().stream()
-                .collect(Collectors.groupingBy(Interpretation::getId, Collectors.counting()));
-        boolean hasNonUniqueIds = ids.values().stream().anyMatch(count -> count != 1L);
-        if (hasNonUniqueIds) {
-            String nonUniqueIds = ids.entrySet().stream()
-                    .filter(e -> e.getValue() != 1L)
-                    .map(Map.Entry::getKey)
-                    .collect(Collectors.joining("', '", "'", "'"));
-            LOGGER.warn("Non-unique interpretation ID(s) {}, not removing one of the recessive variants in {}", nonUniqueIds, pp.getId());
-            return pp;
+        if (!hasUniqueInterpretationIds(pp)) {
+            skipListener.skipped(SkipReason.NON_UNIQUE_INTERPRETATION_IDS, pp.getId());
+            return -1;
         }
 
         // Find the disease.
         OntologyClass diseaseIdPp = observedDiseases.get(0).getTerm();
         TermId diseaseId = parseDiseaseId(diseaseIdPp);
-        Optional<HpoDisease> diseaseOptional = diseases.diseaseById(diseaseId);
-        if (diseaseOptional.isEmpty()) {
-            LOGGER.warn("Unknown disease {} ({}), not removing one of the recessive variants in {}", diseaseIdPp.getLabel(), diseaseIdPp.getId(), pp.getId());
-            return pp;
+        if (!diseases.contains(diseaseId)) {
+            skipListener.skipped(SkipReason.UNKNOWN_DISEASE, diseaseIdPp.getId());
+            return -1;
         }
 
         // Process the disease.
-        boolean hasAR = diseaseHasArModeOfInheritance(diseaseOptional.get());
+        boolean hasAR = diseases.isAutosomalRecessive(diseaseId);
         if (hasAR) {
             List<Interpretation> relevantInterpretations = pp.getInterpretationsList().stream()
                     .filter(i -> i.getDiagnosis().getDisease().getId().equals(diseaseIdPp.getId()))
                     .toList();
             if (relevantInterpretations.size() != 2) {
-                LOGGER.warn("The number of variant interpretation relevant to {} ({}) {}!=2, not removing one of the recessive variants in {}",
-                        diseaseIdPp.getLabel(),
-                        diseaseIdPp.getId(),
-                        relevantInterpretations.size(),
-                        pp.getId());
-                return pp;
+                skipListener.skipped(SkipReason.VARIANT_COUNT, pp.getId());
+                return -1;
             }
 
-            String idOfTheInterpretationToBeRemoved = relevantInterpretations.get(random.nextInt(pp.getInterpretationsCount())).getId();
-            List<Interpretation> passingInterpretations = pp.getInterpretationsList().stream()
-                    .filter(i -> !i.getId().equals(idOfTheInterpretationToBeRemoved))
-                    .toList();
-
-            // Remove random interpretation.
-            return pp.toBuilder()
-                    .clearInterpretations()
-                    .addAllInterpretations(passingInterpretations)
-                    .build();
-        } else
-            return pp; // Nothing to be done in non-AR disease.
+            // Remove random interpretation, the IDs are unique.
+            String idOfTheInterpretationToBeRemoved = relevantInterpretations.get(random.nextInt(relevantInterpretations.size())).getId();
+            for (int i = 0; i < pp.getInterpretationsCount(); i++) {
+                if (pp.getInterpretations(i).getId().equals(idOfTheInterpretationToBeRemoved))
+                    return i;
+            }
+        }
+        // Nothing to be done in non-AR disease.
+        skipListener.skipped(SkipReason.NOT_AUTOSOMAL_RECESSIVE, diseaseId.getValue());
+        return -1;
     }
 
-    private boolean diseaseHasArModeOfInheritance(HpoDisease disease) {
-        for (TermId moi : disease.modesOfInheritance()) {
-            Set<TermId> ancestors = hpo.getAncestorTermIds(moi);
-            if (ancestors.contains(HpoModeOfInheritanceTermIds.AUTOSOMAL_RECESSIVE)) {
-                return true;
-            }
+    private static boolean hasUniqueInterpretationIds(PhenopacketOrBuilder pp) {
+        int count = pp.getInterpretationsCount();
+        if (count < 2)
+            return true;
+        Set<String> ids = new HashSet<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            if (!ids.add(pp.getInterpretations(i).getId()))
+                return false;
         }
-        return false;
+        return true;
     }
 
     private static TermId parseDiseaseId(OntologyClass diseaseId) {
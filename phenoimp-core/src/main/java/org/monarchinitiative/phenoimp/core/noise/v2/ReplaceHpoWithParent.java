@@ -1,22 +1,22 @@
 package org.monarchinitiative.phenoimp.core.noise.v2;
 
+import org.monarchinitiative.phenoimp.core.metrics.SkipDiagnostics;
+import org.monarchinitiative.phenoimp.core.metrics.SkipListener;
+import org.monarchinitiative.phenoimp.core.metrics.SkipReason;
+import org.monarchinitiative.phenoimp.core.noise.PhenopacketBuilderNoise;
 import org.monarchinitiative.phenoimp.core.noise.PhenopacketNoise;
+import org.monarchinitiative.phenoimp.core.noise.util.HpoIndex;
+import org.monarchinitiative.phenoimp.core.noise.util.TermMessages;
 import org.monarchinitiative.phenol.base.PhenolRuntimeException;
-import org.monarchinitiative.phenol.ontology.algo.OntologyAlgorithm;
 import org.monarchinitiative.phenol.ontology.data.Ontology;
-import org.monarchinitiative.phenol.ontology.data.Term;
 import org.monarchinitiative.phenol.ontology.data.TermId;
 import org.phenopackets.schema.v2.Phenopacket;
 import org.phenopackets.schema.v2.core.OntologyClass;
 import org.phenopackets.schema.v2.core.PhenotypicFeature;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import java.time.Instant;
 import java.util.*;
 
-import static org.monarchinitiative.phenol.constants.hpo.HpoSubOntologyRootTermIds.PHENOTYPIC_ABNORMALITY;
-
 /**
  * A class for adding noise by replacing each phenotype term with a less specific term.
  * <p>
@@ -25,18 +25,18 @@ import static org.monarchinitiative.phenol.constants.hpo.HpoSubOntologyRootTermI
  * <p>
  * If the term has multiple parents, a pseudo-random number generator is used to choose a parent term.
  */
-public class ReplaceHpoWithParent implements PhenopacketNoise<Phenopacket> {
-
-    private static final Logger LOGGER = LoggerFactory.getLogger(ReplaceHpoWithParent.class);
+public class ReplaceHpoWithParent implements PhenopacketNoise<Phenopacket>, PhenopacketBuilderNoise<Phenopacket.Builder> {
 
-    // HPO
-    private final Ontology hpo;
+    private final HpoIndex hpoIndex;
+    private final TermMessages termMessages;
 
     /**
      * Number of hops to make when searching for a less specific term.
      */
     private final int nHops;
     private final Random random;
+    // Logs a sample of the warnings unless the skips are collected by the caller.
+    private SkipListener skipListener = new SkipDiagnostics().listener("ReplaceHpoWithParent (v2)");
 
     /**
      * Get a hellion instance seeded by the current epoch second.
@@ -56,7 +56,28 @@ public class ReplaceHpoWithParent implements PhenopacketNoise<Phenopacket> {
      *
      */
     public ReplaceHpoWithParent(Ontology hpo, int nHops, long randomSeed) {
-        this.hpo = Objects.requireNonNull(hpo);
+        this(HpoIndex.of(hpo), nHops, randomSeed);
+    }
+
+    /**
+     * Get a hellion instance that walks the provided HPO index, seeded by the given seed.
+     *
+     * @param hpoIndex index of the HPO graph.
+     * @param nHops number of hops to apply when searching for a less specific HPO term.
+     */
+    public ReplaceHpoWithParent(HpoIndex hpoIndex, int nHops, long randomSeed) {
+        this(new TermMessages(hpoIndex), nHops, randomSeed);
+    }
+
+    /**
+     * Get a hellion instance that walks the HPO index of the shared term messages, seeded by the given seed.
+     *
+     * @param termMessages interned messages of the HPO terms.
+     * @param nHops number of hops to apply when searching for a less specific HPO term.
+     */
+    public ReplaceHpoWithParent(TermMessages termMessages, int nHops, long randomSeed) {
+        this.termMessages = Objects.requireNonNull(termMessages);
+        this.hpoIndex = termMessages.index();
         if (nHops <= 0) {
             throw new IllegalArgumentException("Number of hops must be positive, got %d".formatted(nHops));
         }
@@ -64,74 +85,100 @@ public class ReplaceHpoWithParent implements PhenopacketNoise<Phenopacket> {
         this.random = new Random(randomSeed);
     }
 
+    /**
+     * Set the listener notified when the noise drops a phenotypic feature or leaves it unchanged.
+     */
+    public void setSkipListener(SkipListener skipListener) {
+        this.skipListener = Objects.requireNonNull(skipListener);
+    }
+
     @Override
     public Phenopacket distort(Phenopacket pp) {
-        List<PhenotypicFeature> features = pp.getPhenotypicFeaturesList().stream()
-                .map(this::processPhenotypicFeature)
-                .flatMap(Optional::stream)
-                .toList();
-
-        return pp.toBuilder()
-                .clearPhenotypicFeatures()
-                .addAllPhenotypicFeatures(features)
-                .build();
+        return distort(pp, random);
     }
 
-    private Optional<PhenotypicFeature> processPhenotypicFeature(PhenotypicFeature pf) {
-        Optional<TermId> termIdOptional = extractTermIdFromPhenotypicFeature(pf);
-        if (termIdOptional.isEmpty())
-            return Optional.empty();
-
-        TermId termId = termIdOptional.get();
-
-        if (!OntologyAlgorithm.existsPath(hpo, termId, PHENOTYPIC_ABNORMALITY)) {
-            OntologyClass type = pf.getType();
-            LOGGER.warn("Dropping phenotype feature {} ({}) that is not a subclass of Phenotypic abnormality ({})",
-                    type.getLabel(), type.getId(), PHENOTYPIC_ABNORMALITY.getValue());
-            return Optional.empty();
-        } else if (termId.equals(PHENOTYPIC_ABNORMALITY)) {
-            LOGGER.warn("Phenopacket contains phenotypic abnormality ({}) feature. Presence of this feature often adds nothing to the analysis.",
-                    PHENOTYPIC_ABNORMALITY.getValue());
-            return Optional.of(pf);
+    @Override
+    public Phenopacket distort(Phenopacket pp, Random random) {
+        Phenopacket.Builder builder = pp.toBuilder();
+        distort(builder, random);
+        return builder.build();
+    }
+
+    @Override
+    public void distort(Phenopacket.Builder builder) {
+        distort(builder, random);
+    }
+
+    @Override
+    public void distort(Phenopacket.Builder builder, Random random) {
+        // Approximate the features in place and remove the dropped features from the end.
+        int count = builder.getPhenotypicFeaturesCount();
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            PhenotypicFeature approximated = approximate(builder.getPhenotypicFeatures(i), random);
+            if (approximated != null)
+                builder.setPhenotypicFeatures(kept++, approximated);
         }
+        for (int i = count - 1; i >= kept; i--)
+            builder.removePhenotypicFeatures(i);
+    }
 
-        // Now hop upwards n times.
-        TermId current = termId;
-        for (int i = 0; i < nHops; i++) {
-            List<TermId> parents = OntologyAlgorithm.getParentTerms(hpo, current, false).stream()
-                    .filter(t -> !t.equals(PHENOTYPIC_ABNORMALITY))
-                    .sorted(Comparator.comparing(TermId::getId))
-                    .toList();
-            if (parents.isEmpty()) {
-                // This happens if we reached Phenotypic abnormality and in that case further hopping has no point.
-                current = PHENOTYPIC_ABNORMALITY;
-                break;
-            }
-
-            int idx = random.nextInt(parents.size());
-            current = parents.get(idx);
+    /**
+     * Replace the term of the phenotypic feature with a random ancestor.
+     *
+     * @return the approximated feature or <code>null</code> if the feature should be dropped.
+     */
+    PhenotypicFeature approximate(PhenotypicFeature pf, Random random) {
+        OntologyClass type = pf.getType();
+        int term = hpoIndex.indexOf(type.getId());
+
+        if (term < 0 && !isParsable(type.getId())) {
+            skipListener.skipped(SkipReason.NON_PARSABLE_TERM, type.getId());
+            return null;
+        } else if (term < 0 || !hpoIndex.isPhenotypicAbnormalityDescendant(term)) {
+            skipListener.skipped(SkipReason.NOT_PHENOTYPIC_ABNORMALITY, type.getId());
+            return null;
+        } else if (term == hpoIndex.phenotypicAbnormality()) {
+            skipListener.skipped(SkipReason.PHENOTYPIC_ABNORMALITY_ROOT, type.getId());
+            return pf;
         }
 
-        Term term = hpo.getTermMap().get(current);
-        if (term == null) {
-            LOGGER.warn("Missing HPO term for ID {}. Please report the missing term to HPO developers.", current.getValue());
-            return Optional.empty();
+        // Now hop upwards n times.
+        int ancestor = hpoIndex.randomAncestor(term, nHops, random);
+        if (hpoIndex.label(ancestor) == null) {
+            skipListener.skipped(SkipReason.MISSING_TERM, hpoIndex.termId(ancestor).getValue());
+            return null;
         }
 
-        return Optional.of(pf.toBuilder()
-                .setType(OntologyClass.newBuilder()
-                        .setId(current.getValue())
-                        .setLabel(term.getName()))
-                .build());
+        if (ancestor == term)
+            return pf;
+        // The features with only the type are shared as well.
+        return hasOnlyType(pf)
+                ? termMessages.v2PhenotypicFeature(ancestor)
+                : pf.toBuilder().setType(termMessages.v2OntologyClass(ancestor)).build();
+    }
+
+    /**
+     * @return <code>true</code> if the feature has no field but the type, hence replacing the type
+     * yields the shared feature of the ancestor. Cheaper than comparing the feature with the shared feature.
+     */
+    private static boolean hasOnlyType(PhenotypicFeature pf) {
+        return pf.getDescription().isEmpty()
+                && !pf.getExcluded()
+                && !pf.hasSeverity()
+                && pf.getModifiersCount() == 0
+                && !pf.hasOnset()
+                && !pf.hasResolution()
+                && pf.getEvidenceCount() == 0
+                && pf.getUnknownFields().asMap().isEmpty();
     }
 
-    private static Optional<TermId> extractTermIdFromPhenotypicFeature(PhenotypicFeature pf) {
-        String id = pf.getType().getId();
+    private static boolean isParsable(String id) {
         try {
-            return Optional.of(TermId.of(id));
+            TermId.of(id);
+            return true;
         } catch (PhenolRuntimeException e) {
-            LOGGER.warn("Dropping phenotype feature due to non-parsable ID: '{}'", id);
-            return Optional.empty();
+            return false;
         }
     }
 }
@@ -0,0 +1,58 @@
+package org.monarchinitiative.phenoimp.core.runner;
+
+import com.google.protobuf.Message;
+import org.monarchinitiative.phenoimp.core.DistortionRunner;
+import org.monarchinitiative.phenoimp.core.noise.PhenopacketBuilderNoise;
+import org.phenopackets.schema.v2.Phenopacket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Runner for v2 {@link Phenopacket}s that passes a single {@link Phenopacket.Builder} through the noises
+ * and builds the distorted phenopacket once.
+ * <p>
+ * The result is the same as of {@link SequentialV2DistortionRunner} with the same noises, but the parts
+ * of the phenopacket that are not distorted are not copied by each noise.
+ */
+public class FusedV2DistortionRunner implements DistortionRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FusedV2DistortionRunner.class);
+
+    private final List<PhenopacketBuilderNoise<Phenopacket.Builder>> noises;
+
+    public FusedV2DistortionRunner(List<PhenopacketBuilderNoise<Phenopacket.Builder>> noise) {
+        this.noises = Objects.requireNonNull(noise);
+        if (noise.isEmpty())
+            LOGGER.warn("No noise will be added!");
+    }
+
+    @Override
+    public Message run(Message message) {
+        if (message instanceof Phenopacket pp) {
+            Phenopacket.Builder builder = pp.toBuilder();
+            for (PhenopacketBuilderNoise<Phenopacket.Builder> noise : noises) {
+                noise.distort(builder);
+            }
+            return builder.build();
+        }
+
+        throw new IllegalArgumentException("Provided message does not represent v2 phenopacket!");
+    }
+
+    @Override
+    public Message run(Message message, Random random) {
+        if (message instanceof Phenopacket pp) {
+            Phenopacket.Builder builder = pp.toBuilder();
+            for (PhenopacketBuilderNoise<Phenopacket.Builder> noise : noises) {
+                noise.distort(builder, random);
+            }
+            return builder.build();
+        }
+
+        throw new IllegalArgumentException("Provided message does not represent v2 phenopacket!");
+    }
+}
@@ -0,0 +1,177 @@
+package org.monarchinitiative.phenoimp.core.runner;
+
+import com.google.protobuf.Message;
+import org.monarchinitiative.phenoimp.core.DistortionRunner;
+import org.monarchinitiative.phenoimp.core.PhenoImp;
+import org.monarchinitiative.phenoimp.core.PhenoImpRuntimeException;
+import org.monarchinitiative.phenoimp.core.PhenopacketVersion;
+import org.monarchinitiative.phenoimp.core.RandomSeeds;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Runner for distorting a cohort of v1 and v2 phenopackets using multiple threads.
+ * <p>
+ * Each phenopacket is distorted with its own pseudorandom number generator seeded by a seed derived
+ * from the global seed of {@link PhenoImp} and from the phenopacket ID. Therefore, the distorted phenopacket
+ * depends neither on the number of threads, nor on the order of the phenopackets in the cohort.
+ * Phenopackets with the same ID are, however, distorted with the same random stream. A phenopacket with a blank ID
+ * is keyed by its source and index instead, see {@link RandomSeeds#forPhenopacket(long, Message, String, long)}.
+ */
+public class ParallelDistortionRunner implements AutoCloseable {
+
+    /**
+     * Number of tasks submitted per thread before we start waiting for the results.
+     */
+    private static final int TASKS_PER_THREAD = 4;
+
+    private final PhenoImp phenoImp;
+    private final ExecutorService executor;
+    private final int maxTasksInFlight;
+
+    public ParallelDistortionRunner(PhenoImp phenoImp, int nThreads) {
+        this.phenoImp = Objects.requireNonNull(phenoImp);
+        if (nThreads <= 0)
+            throw new IllegalArgumentException("Number of threads must be positive, got %d".formatted(nThreads));
+        this.executor = Executors.newFixedThreadPool(nThreads, new WorkerThreadFactory());
+        this.maxTasksInFlight = nThreads * TASKS_PER_THREAD;
+    }
+
+    /**
+     * Get the seed for distorting the phenopacket.
+     */
+    public long randomSeed(Message pp) {
+        return randomSeed(pp, 0);
+    }
+
+    /**
+     * Get the seed for distorting the {@code replicate} of the phenopacket.
+     */
+    public long randomSeed(Message pp, int replicate) {
+        return randomSeed(pp, replicate, "", 0);
+    }
+
+    /**
+     * Get the seed for distorting the {@code replicate} of the phenopacket read as the {@code index}-th record
+     * of the {@code source}. The source and the index are used only if the phenopacket has a blank ID.
+     */
+    public long randomSeed(Message pp, int replicate, String source, long index) {
+        return RandomSeeds.forPhenopacket(replicateSeed(replicate), pp, source, index);
+    }
+
+    /**
+     * Get the global seed of the {@code replicate}. Running with the seed regenerates the replicate.
+     */
+    public long replicateSeed(int replicate) {
+        return RandomSeeds.forReplicate(phenoImp.randomSeed(), replicate);
+    }
+
+    /**
+     * Distort the phenopacket on the calling thread. The method is thread-safe.
+     *
+     * @throws PhenoImpRuntimeException if there is no runner for the phenopacket version.
+     */
+    public Message distort(Message pp) {
+        return distort(pp, 0);
+    }
+
+    /**
+     * Distort the {@code replicate} of the phenopacket on the calling thread. The replicate {@code 0}
+     * is the same as the phenopacket distorted by {@link #distort(Message)}. The method is thread-safe.
+     *
+     * @throws PhenoImpRuntimeException if there is no runner for the phenopacket version.
+     */
+    public Message distort(Message pp, int replicate) {
+        return distort(phenoImp, pp, replicate);
+    }
+
+    /**
+     * Distort the {@code replicate} of the phenopacket with the distortion runners of another {@code config},
+     * such as a cell of a parameter sweep. The phenopacket is seeded by the seeds of this runner, hence all configs
+     * use the same random streams. The method is thread-safe.
+     *
+     * @throws PhenoImpRuntimeException if there is no runner for the phenopacket version.
+     */
+    public Message distort(PhenoImp config, Message pp, int replicate) {
+        return distort(config, pp, replicate, "", 0);
+    }
+
+    /**
+     * Distort the {@code replicate} of the phenopacket read as the {@code index}-th record of the {@code source}
+     * with the distortion runners of the {@code config}. The source and the index are used for seeding
+     * only if the phenopacket has a blank ID. The method is thread-safe.
+     *
+     * @throws PhenoImpRuntimeException if there is no runner for the phenopacket version.
+     */
+    public Message distort(PhenoImp config, Message pp, int replicate, String source, long index) {
+        PhenopacketVersion version = PhenopacketVersion.of(pp);
+        DistortionRunner runner = config.forPhenopacket(version)
+                .orElseThrow(() -> new PhenoImpRuntimeException("Distortion runner for phenopacket version %s is not configured".formatted(version)));
+        return runner.run(pp, new Random(randomSeed(pp, replicate, source, index)));
+    }
+
+    /**
+     * Distort the cohort of phenopackets. The phenopackets with a blank ID are keyed by their index in the cohort.
+     *
+     * @return list with distorted phenopackets in the order of the input {@code cohort}.
+     */
+    public List<Message> run(List<? extends Message> cohort) {
+        List<Message> distorted = new ArrayList<>(cohort.size());
+        run(IntStream.range(0, cohort.size()).iterator(), i -> distort(phenoImp, cohort.get(i), 0, "", i), distorted::add);
+        return distorted;
+    }
+
+    /**
+     * Apply the {@code task} to the {@code items} using the worker threads and pass the results to the {@code consumer}.
+     * <p>
+     * The {@code task} is expected to distort the item with {@link #distort(Message)}, and it can also
+     * decode the item into a phenopacket or encode the result. The number of items being processed at any time
+     * is bounded, and the {@code consumer} receives the results on the calling thread in the order of the input items.
+     *
+     * @throws PhenoImpRuntimeException if the {@code task} throws an exception. The pending tasks are cancelled.
+     */
+    public <T, R> void run(Iterator<? extends T> items,
+                           Function<? super T, ? extends R> task,
+                           Consumer<? super R> consumer) {
+        Deque<Future<? extends R>> pending = new ArrayDeque<>(maxTasksInFlight);
+        try {
+            while (items.hasNext() || !pending.isEmpty()) {
+                while (pending.size() < maxTasksInFlight && items.hasNext()) {
+                    T item = items.next();
+                    pending.addLast(executor.submit(() -> task.apply(item)));
+                }
+                consumer.accept(pending.removeFirst().get());
+            }
+        } catch (ExecutionException e) {
+            throw new PhenoImpRuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PhenoImpRuntimeException(e);
+        } finally {
+            for (Future<? extends R> future : pending)
+                future.cancel(true);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "phenoimp-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
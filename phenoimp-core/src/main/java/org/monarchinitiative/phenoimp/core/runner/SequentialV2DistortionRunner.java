@@ -9,6 +9,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.Random;
 
 /**
  * Runner for v2 {@link Phenopacket}s.
@@ -36,4 +37,16 @@ public class SequentialV2DistortionRunner implements DistortionRunner {
 
         throw new IllegalArgumentException("Provided message does not represent v2 phenopacket!");
     }
+
+    @Override
+    public Message run(Message message, Random random) {
+        if (message instanceof Phenopacket pp) {
+            for (PhenopacketNoise<Phenopacket> noise : noises) {
+                pp = noise.distort(pp, random);
+            }
+            return pp;
+        }
+
+        throw new IllegalArgumentException("Provided message does not represent v2 phenopacket!");
+    }
 }
@@ -0,0 +1,68 @@
+package org.monarchinitiative.phenoimp.core.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.phenoimp.core.DistortionRunner;
+import org.monarchinitiative.phenoimp.core.TestBase;
+import org.monarchinitiative.phenoimp.core.TestCases;
+import org.monarchinitiative.phenoimp.core.noise.v2.ReplaceHpoWithParent;
+import org.monarchinitiative.phenoimp.core.runner.FusedV2DistortionRunner;
+import org.phenopackets.schema.v2.Phenopacket;
+import org.phenopackets.schema.v2.core.OntologyClass;
+import org.phenopackets.schema.v2.core.PhenotypicFeature;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class DistortionMetricsTest {
+
+    @Test
+    public void recordsTheStagesAndTheSkips() {
+        DistortionMetrics metrics = new DistortionMetrics();
+        ReplaceHpoWithParent replace = new ReplaceHpoWithParent(TestBase.HPO_TOY, 1, 42L);
+        replace.setSkipListener(metrics.skipListener("replace"));
+        DistortionRunner runner = new InstrumentedDistortionRunner(
+                new FusedV2DistortionRunner(List.of(new InstrumentedNoise<>(replace, metrics.stage("noise")))),
+                metrics.stage("distort"));
+        Phenopacket pp = TestCases.PHENOPACKET.toBuilder()
+                .clearPhenotypicFeatures()
+                .addPhenotypicFeatures(feature("HP:0001166", "Arachnodactyly"))
+                .addPhenotypicFeatures(feature("HP:0003674", "Onset"))
+                .addPhenotypicFeatures(feature("NOT_A_TERM", "Garbage"))
+                .build();
+
+        for (int i = 0; i < 3; i++)
+            runner.run(pp, new Random(i));
+
+        assertThat(metrics.stages().stream().map(DistortionMetrics.Stage::name).toList(), contains("noise", "distort"));
+        for (DistortionMetrics.Stage stage : metrics.stages()) {
+            assertThat(stage.latency().count(), equalTo(3L));
+            assertThat(stage.latency().maxNanos(), greaterThan(0L));
+        }
+        assertThat(metrics.diagnostics().count("replace", SkipReason.NOT_PHENOTYPIC_ABNORMALITY), equalTo(3L));
+        assertThat(metrics.diagnostics().count("replace", SkipReason.NON_PARSABLE_TERM), equalTo(3L));
+        assertThat(metrics.diagnostics().count("replace", SkipReason.UNKNOWN_DISEASE), equalTo(0L));
+        assertThat(metrics.diagnostics().count("other", SkipReason.UNKNOWN_DISEASE), equalTo(0L));
+
+        String report = metrics.report();
+        assertThat(report, containsString("distort"));
+        assertThat(report, containsString("dropped feature with non-parsable term id"));
+        assertThat(report, containsString("NOT_A_TERM (3)"));
+    }
+
+    @Test
+    public void stageIsCreatedOnce() {
+        DistortionMetrics metrics = new DistortionMetrics();
+
+        assertThat(metrics.stage("parse"), sameInstance(metrics.stage("parse")));
+        assertThat(metrics.stages(), hasSize(1));
+    }
+
+    private static PhenotypicFeature feature(String id, String label) {
+        return PhenotypicFeature.newBuilder()
+                .setType(OntologyClass.newBuilder().setId(id).setLabel(label))
+                .build();
+    }
+}
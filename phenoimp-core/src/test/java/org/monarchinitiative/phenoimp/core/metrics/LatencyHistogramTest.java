@@ -0,0 +1,51 @@
+package org.monarchinitiative.phenoimp.core.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsCoverAllLatencies() {
+        long previous = -1L;
+        for (int bucket = 0; bucket < 248; bucket++) {
+            long upperBound = LatencyHistogram.upperBound(bucket);
+            assertThat(upperBound, greaterThan(previous));
+            assertThat(LatencyHistogram.bucket(previous + 1), equalTo(bucket));
+            assertThat(LatencyHistogram.bucket(upperBound), equalTo(bucket));
+            previous = upperBound;
+        }
+        assertThat(previous, equalTo(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void percentilesAreWithinTheBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 10_000; nanos++)
+            histogram.record(nanos * 1_000);
+
+        assertThat(histogram.count(), equalTo(10_000L));
+        assertThat(histogram.maxNanos(), equalTo(10_000_000L));
+        assertThat(histogram.meanNanos(), closeTo(5_000_500., 1e-6));
+        assertThat((double) histogram.percentileNanos(.5), closeTo(5_000_000., 1_250_000.));
+        assertThat((double) histogram.percentileNanos(.99), closeTo(9_900_000., 2_475_000.));
+        assertThat(histogram.percentileNanos(1.), equalTo(10_000_000L));
+    }
+
+    @Test
+    public void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertThat(histogram.count(), equalTo(0L));
+        assertThat(histogram.meanNanos(), equalTo(0.));
+        assertThat(histogram.percentileNanos(.99), equalTo(0L));
+    }
+
+    @Test
+    public void quantileMustBeBetweenZeroAndOne() {
+        assertThrows(IllegalArgumentException.class, () -> new LatencyHistogram().percentileNanos(1.5));
+    }
+}
@@ -0,0 +1,66 @@
+package org.monarchinitiative.phenoimp.core.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SkipDiagnosticsTest {
+
+    @Test
+    public void countsTheSkipsPerReasonAndId() {
+        SkipDiagnostics diagnostics = new SkipDiagnostics(2);
+        SkipListener listener = diagnostics.listener("drop");
+
+        for (int i = 0; i < 100; i++)
+            listener.skipped(SkipReason.UNKNOWN_DISEASE, "OMIM:" + i % 3);
+        listener.skipped(SkipReason.NOT_AUTOSOMAL_RECESSIVE, "OMIM:4");
+
+        assertThat(diagnostics.count("drop", SkipReason.UNKNOWN_DISEASE), equalTo(100L));
+        assertThat(diagnostics.count("drop", SkipReason.UNKNOWN_DISEASE, "OMIM:0"), equalTo(34L));
+        assertThat(diagnostics.count("drop", SkipReason.UNKNOWN_DISEASE, "OMIM:4"), equalTo(0L));
+        assertThat(diagnostics.count("drop", SkipReason.NOT_AUTOSOMAL_RECESSIVE), equalTo(1L));
+        assertThat(diagnostics.count("replace", SkipReason.UNKNOWN_DISEASE), equalTo(0L));
+    }
+
+    @Test
+    public void listenersOfTheSameNoiseShareTheCounts() {
+        SkipDiagnostics diagnostics = new SkipDiagnostics();
+
+        diagnostics.listener("replace").skipped(SkipReason.NON_PARSABLE_TERM, "HP:X");
+        diagnostics.listener("replace").skipped(SkipReason.NON_PARSABLE_TERM, "HP:X");
+
+        assertThat(diagnostics.count("replace", SkipReason.NON_PARSABLE_TERM, "HP:X"), equalTo(2L));
+    }
+
+    @Test
+    public void summaryListsTheMostFrequentIds() {
+        SkipDiagnostics diagnostics = new SkipDiagnostics(0);
+        SkipListener listener = diagnostics.listener("replace");
+        for (int i = 0; i < 10; i++) {
+            for (int j = 0; j <= i; j++)
+                listener.skipped(SkipReason.NOT_PHENOTYPIC_ABNORMALITY, "HP:%07d".formatted(i));
+        }
+
+        String summary = diagnostics.summary();
+
+        assertThat(summary, containsString("dropped feature that is not a phenotypic abnormality"));
+        assertThat(summary, containsString("55"));
+        assertThat(summary, containsString("HP:0000009 (10), HP:0000008 (9), HP:0000007 (8), HP:0000006 (7), HP:0000005 (6), 5 more"));
+        assertThat(summary, not(containsString("unknown disease")));
+    }
+
+    @Test
+    public void summaryIsEmptyIfNothingWasSkipped() {
+        SkipDiagnostics diagnostics = new SkipDiagnostics();
+        diagnostics.listener("replace");
+
+        assertThat(diagnostics.summary(), equalTo(""));
+    }
+
+    @Test
+    public void sampleSizeMustBeNonNegative() {
+        assertThrows(IllegalArgumentException.class, () -> new SkipDiagnostics(-1));
+    }
+}
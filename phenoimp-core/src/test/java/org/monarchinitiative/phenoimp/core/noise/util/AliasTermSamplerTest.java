@@ -0,0 +1,169 @@
+package org.monarchinitiative.phenoimp.core.noise.util;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.phenoimp.core.TestBase;
+import org.monarchinitiative.phenol.annotations.formats.hpo.HpoDisease;
+import org.monarchinitiative.phenol.annotations.formats.hpo.HpoDiseaseAnnotation;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+
+import java.util.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AliasTermSamplerTest {
+
+    private static final HpoIndex INDEX = HpoIndex.of(TestBase.HPO_TOY);
+
+    @Test
+    public void uniformDrawsPhenotypicAbnormalityDescendants() {
+        AliasTermSampler sampler = AliasTermSampler.uniform(INDEX);
+        Random random = new Random(42L);
+
+        int[] counts = new int[INDEX.size()];
+        int nDraws = 100_000;
+        for (int i = 0; i < nDraws; i++)
+            counts[sampler.next(random)]++;
+
+        double expected = (double) nDraws / sampler.size();
+        for (int term = 0; term < INDEX.size(); term++) {
+            // The toy graph has vertices without terms, these are never drawn.
+            if (INDEX.isPhenotypicAbnormalityDescendant(term) && INDEX.label(term) != null)
+                assertThat(counts[term], allOf(greaterThan((int) (.9 * expected)), lessThan((int) (1.1 * expected))));
+            else
+                assertThat(counts[term], equalTo(0));
+        }
+    }
+
+    @Test
+    public void uniformDrawTakesSingleInt() {
+        AliasTermSampler sampler = AliasTermSampler.uniform(INDEX);
+        Random random = new Random(42L);
+        Random expected = new Random(42L);
+
+        for (int i = 0; i < 100; i++)
+            sampler.next(random);
+        for (int i = 0; i < 100; i++)
+            expected.nextInt(sampler.size());
+
+        assertThat(random.nextLong(), equalTo(expected.nextLong()));
+    }
+
+    @Test
+    public void nextFollowsTheWeights() {
+        double[] weights = new double[INDEX.size()];
+        int arachnodactyly = INDEX.indexOf(TermId.of("HP:0001166"));
+        int slenderFinger = INDEX.indexOf(TermId.of("HP:0001238"));
+        weights[arachnodactyly] = 1.;
+        weights[slenderFinger] = 3.;
+        AliasTermSampler sampler = new AliasTermSampler(INDEX, weights);
+        Random random = new Random(42L);
+
+        int nArachnodactyly = 0;
+        int nDraws = 100_000;
+        for (int i = 0; i < nDraws; i++) {
+            int term = sampler.next(random);
+            assertThat(term, anyOf(equalTo(arachnodactyly), equalTo(slenderFinger)));
+            if (term == arachnodactyly)
+                nArachnodactyly++;
+        }
+
+        assertThat(sampler.size(), equalTo(2));
+        assertThat((double) nArachnodactyly / nDraws, closeTo(.25, .01));
+    }
+
+    @Test
+    public void sampleDrawsDistinctTermsThatAreNotExcluded() {
+        AliasTermSampler sampler = AliasTermSampler.uniform(INDEX);
+        int arachnodactyly = INDEX.indexOf(TermId.of("HP:0001166"));
+        BitSet excluded = new BitSet();
+        excluded.set(arachnodactyly);
+
+        int[] terms = sampler.sample(5, excluded, new Random(42L));
+
+        Set<Integer> distinct = new HashSet<>();
+        for (int term : terms)
+            distinct.add(term);
+        assertThat(distinct, hasSize(5));
+        assertThat(distinct, not(hasItem(arachnodactyly)));
+        for (int term : terms)
+            assertThat(excluded.get(term), equalTo(true));
+    }
+
+    @Test
+    public void sampleReturnsFewerTermsIfTheSupportIsExhausted() {
+        AliasTermSampler sampler = AliasTermSampler.uniform(INDEX);
+        BitSet excluded = new BitSet();
+        int[] first = sampler.sample(3, excluded, new Random(42L));
+
+        int[] rest = sampler.sample(sampler.size(), excluded, new Random(42L));
+
+        assertThat(first.length + rest.length, equalTo(sampler.size()));
+        assertThat(excluded.cardinality(), equalTo(sampler.size()));
+        assertThat(sampler.sample(1, excluded, new Random(42L)).length, equalTo(0));
+    }
+
+    @Test
+    public void sampleFollowsTheWeightsWhenMostMassIsExcluded() {
+        // The rejections give up quickly and the terms are drawn in the weighted pass.
+        double[] weights = new double[INDEX.size()];
+        int arachnodactyly = INDEX.indexOf(TermId.of("HP:0001166"));
+        int slenderFinger = INDEX.indexOf(TermId.of("HP:0001238"));
+        int abnormalityOfFinger = INDEX.indexOf(TermId.of("HP:0001167"));
+        weights[arachnodactyly] = 1e6;
+        weights[slenderFinger] = 1.;
+        weights[abnormalityOfFinger] = 3.;
+        AliasTermSampler sampler = new AliasTermSampler(INDEX, weights);
+        Random random = new Random(42L);
+
+        int nSlenderFinger = 0;
+        int nDraws = 20_000;
+        for (int i = 0; i < nDraws; i++) {
+            BitSet excluded = new BitSet();
+            excluded.set(arachnodactyly);
+            int[] terms = sampler.sample(1, excluded, random);
+            assertThat(terms.length, equalTo(1));
+            if (terms[0] == slenderFinger)
+                nSlenderFinger++;
+        }
+
+        assertThat((double) nSlenderFinger / nDraws, closeTo(.25, .015));
+    }
+
+    @Test
+    public void annotationFrequencyDrawsAnnotatedTerms() {
+        Set<TermId> annotated = new HashSet<>();
+        for (HpoDisease disease : TestBase.DISEASES)
+            disease.annotationStream()
+                    .filter(HpoDiseaseAnnotation::isPresent)
+                    .map(HpoDiseaseAnnotation::id)
+                    .forEach(annotated::add);
+        AliasTermSampler sampler = AliasTermSampler.annotationFrequency(INDEX, TestBase.DISEASES);
+        Random random = new Random(42L);
+
+        for (int i = 0; i < 1_000; i++)
+            assertThat(annotated, hasItem(INDEX.termId(sampler.next(random))));
+    }
+
+    @Test
+    public void informationContentFavorsSpecificTerms() {
+        AliasTermSampler sampler = AliasTermSampler.informationContent(INDEX, TestBase.DISEASES);
+        Random random = new Random(42L);
+
+        int[] counts = new int[INDEX.size()];
+        for (int i = 0; i < 100_000; i++)
+            counts[sampler.next(random)]++;
+
+        // A term is annotated with at least as many diseases as its child, hence it is drawn at most as often.
+        int arachnodactyly = INDEX.indexOf(TermId.of("HP:0001166"));
+        int abnormalityOfTheSkeletalSystem = INDEX.indexOf(TermId.of("HP:0000924"));
+        assertThat(counts[arachnodactyly], greaterThan(counts[abnormalityOfTheSkeletalSystem]));
+        assertThat(sampler.size(), equalTo(AliasTermSampler.uniform(INDEX).size()));
+    }
+
+    @Test
+    public void weightsMustHaveAPositiveTerm() {
+        assertThrows(IllegalArgumentException.class, () -> new AliasTermSampler(INDEX, new double[INDEX.size()]));
+    }
+}
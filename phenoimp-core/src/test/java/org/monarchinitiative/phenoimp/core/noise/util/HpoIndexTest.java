@@ -0,0 +1,68 @@
+package org.monarchinitiative.phenoimp.core.noise.util;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.phenoimp.core.TestBase;
+import org.monarchinitiative.phenol.ontology.algo.OntologyAlgorithm;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.monarchinitiative.phenol.constants.hpo.HpoSubOntologyRootTermIds.PHENOTYPIC_ABNORMALITY;
+
+public class HpoIndexTest {
+
+    private static final HpoIndex INDEX = HpoIndex.of(TestBase.HPO_TOY);
+
+    @Test
+    public void indexOf() {
+        int arachnodactyly = INDEX.indexOf(TermId.of("HP:0001166"));
+
+        assertThat(arachnodactyly, greaterThanOrEqualTo(0));
+        assertThat(INDEX.termId(arachnodactyly), equalTo(TermId.of("HP:0001166")));
+        assertThat(INDEX.label(arachnodactyly), equalTo("Arachnodactyly"));
+        assertThat(INDEX.indexOf(TermId.of("HP:9999999")), equalTo(-1));
+    }
+
+    @Test
+    public void isPhenotypicAbnormalityDescendant() {
+        assertThat(INDEX.isPhenotypicAbnormalityDescendant(INDEX.indexOf(TermId.of("HP:0001166"))), equalTo(true));
+        assertThat(INDEX.isPhenotypicAbnormalityDescendant(INDEX.indexOf(TermId.of("HP:0003674"))), equalTo(false));
+        assertThat(INDEX.isPhenotypicAbnormalityDescendant(INDEX.phenotypicAbnormality()), equalTo(false));
+
+        for (TermId termId : TestBase.HPO_TOY.getNonObsoleteTermIds()) {
+            int term = INDEX.indexOf(termId);
+            assertThat(INDEX.isPhenotypicAbnormalityDescendant(term),
+                    equalTo(OntologyAlgorithm.existsPath(TestBase.HPO_TOY, termId, PHENOTYPIC_ABNORMALITY)));
+        }
+    }
+
+    @Test
+    public void parentsAreSortedAndExcludePhenotypicAbnormality() {
+        for (TermId termId : TestBase.HPO_TOY.getNonObsoleteTermIds()) {
+            int term = INDEX.indexOf(termId);
+            List<TermId> parents = new ArrayList<>();
+            for (int i = 0; i < INDEX.parentCount(term); i++)
+                parents.add(INDEX.termId(INDEX.parent(term, i)));
+
+            List<TermId> expected = OntologyAlgorithm.getParentTerms(TestBase.HPO_TOY, termId, false).stream()
+                    .filter(t -> !t.equals(PHENOTYPIC_ABNORMALITY))
+                    .sorted(Comparator.comparing(TermId::getId))
+                    .toList();
+            assertThat(parents, equalTo(expected));
+        }
+    }
+
+    @Test
+    public void randomAncestorStopsAtPhenotypicAbnormality() {
+        int arachnodactyly = INDEX.indexOf(TermId.of("HP:0001166"));
+
+        int ancestor = INDEX.randomAncestor(arachnodactyly, 1000, new Random(42L));
+
+        assertThat(ancestor, equalTo(INDEX.phenotypicAbnormality()));
+    }
+}
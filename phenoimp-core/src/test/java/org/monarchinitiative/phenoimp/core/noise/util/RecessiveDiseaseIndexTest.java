@@ -0,0 +1,53 @@
+package org.monarchinitiative.phenoimp.core.noise.util;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.phenoimp.core.TestBase;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RecessiveDiseaseIndexTest {
+
+    private static final RecessiveDiseaseIndex INDEX = RecessiveDiseaseIndex.of(TestBase.HPO_TOY, TestBase.DISEASES);
+
+    @Test
+    public void recessiveDisease() {
+        // Hypercholesterolemia, familial, 1 segregates with both AD and AR modes of inheritance.
+        TermId hypercholesterolemia = TermId.of("OMIM:143890");
+
+        assertThat(INDEX.contains(hypercholesterolemia), equalTo(true));
+        assertThat(INDEX.isAutosomalRecessive(hypercholesterolemia), equalTo(true));
+    }
+
+    @Test
+    public void dominantDisease() {
+        TermId marfanSyndrome = TermId.of("OMIM:154700");
+
+        assertThat(INDEX.contains(marfanSyndrome), equalTo(true));
+        assertThat(INDEX.isAutosomalRecessive(marfanSyndrome), equalTo(false));
+    }
+
+    @Test
+    public void unknownDisease() {
+        TermId unknown = TermId.of("OMIM:999999");
+
+        assertThat(INDEX.contains(unknown), equalTo(false));
+        assertThat(INDEX.isAutosomalRecessive(unknown), equalTo(false));
+    }
+
+    @Test
+    public void sizes() {
+        assertThat(INDEX.size(), equalTo(TestBase.DISEASES.size()));
+        assertThat(INDEX.recessiveCount(), equalTo(1));
+    }
+
+    @Test
+    public void recessiveDiseasesMustBeKnown() {
+        assertThrows(IllegalArgumentException.class,
+                () -> RecessiveDiseaseIndex.of(Set.of(), Set.of(TermId.of("OMIM:143890"))));
+    }
+}
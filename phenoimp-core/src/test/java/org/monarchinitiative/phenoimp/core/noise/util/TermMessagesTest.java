@@ -0,0 +1,40 @@
+package org.monarchinitiative.phenoimp.core.noise.util;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.phenoimp.core.TestBase;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class TermMessagesTest {
+
+    private static final HpoIndex INDEX = HpoIndex.of(TestBase.HPO_TOY);
+
+    @Test
+    public void messagesAreBuiltOnce() {
+        TermMessages messages = new TermMessages(INDEX);
+        int arachnodactyly = INDEX.indexOf(TermId.of("HP:0001166"));
+
+        org.phenopackets.schema.v2.core.PhenotypicFeature pf = messages.v2PhenotypicFeature(arachnodactyly);
+
+        assertThat(pf.getType().getId(), equalTo("HP:0001166"));
+        assertThat(pf.getType().getLabel(), equalTo("Arachnodactyly"));
+        assertThat(pf.getExcluded(), equalTo(false));
+        assertThat(pf.getType(), sameInstance(messages.v2OntologyClass(arachnodactyly)));
+        assertThat(messages.v2PhenotypicFeature(arachnodactyly), sameInstance(pf));
+    }
+
+    @Test
+    public void v1MessagesMatchV2Messages() {
+        TermMessages messages = new TermMessages(INDEX);
+        int slenderFinger = INDEX.indexOf(TermId.of("HP:0001238"));
+
+        org.phenopackets.schema.v1.core.PhenotypicFeature pf = messages.v1PhenotypicFeature(slenderFinger);
+
+        assertThat(pf.getType().getId(), equalTo(messages.v2OntologyClass(slenderFinger).getId()));
+        assertThat(pf.getType().getLabel(), equalTo(messages.v2OntologyClass(slenderFinger).getLabel()));
+        assertThat(pf.getNegated(), equalTo(false));
+        assertThat(messages.v1PhenotypicFeature(slenderFinger), sameInstance(pf));
+    }
+}
@@ -5,6 +5,7 @@ import org.monarchinitiative.phenoimp.core.TestBase;
 import org.phenopackets.phenopackettools.builder.PhenopacketBuilder;
 import org.phenopackets.phenopackettools.builder.builders.*;
 import org.phenopackets.schema.v2.Phenopacket;
+import org.phenopackets.schema.v2.core.Diagnosis;
 import org.phenopackets.schema.v2.core.Interpretation;
 
 import java.util.List;
@@ -29,6 +30,26 @@ public class DropOneOfTwoRecessiveVariantsTest {
         assertThat(interpretations.stream().anyMatch(i -> i.getId().equals("first-interpretation-id")), equalTo(true));
     }
 
+    @Test
+    public void interpretationOfAnotherDiseaseIsKept() {
+        Phenopacket pp = phenopacketWithRecessiveDiseaseAndTwoRecessiveVariants().toBuilder()
+                .addInterpretations(Interpretation.newBuilder()
+                        .setId("unrelated-interpretation-id")
+                        .setDiagnosis(Diagnosis.newBuilder()
+                                .setDisease(OntologyClassBuilder.ontologyClass("OMIM:100000", "Unrelated disease"))))
+                .build();
+
+        for (long seed = 0; seed < 20; seed++) {
+            DropOneOfTwoRecessiveVariants fuzzer = new DropOneOfTwoRecessiveVariants(TestBase.HPO_TOY, TestBase.DISEASES, seed);
+
+            Phenopacket result = fuzzer.distort(pp);
+
+            List<String> ids = result.getInterpretationsList().stream().map(Interpretation::getId).toList();
+            assertThat(ids, hasSize(2));
+            assertThat(ids, hasItem("unrelated-interpretation-id"));
+        }
+    }
+
     private static Phenopacket phenopacketWithRecessiveDiseaseAndTwoRecessiveVariants() {
         String individualId = "individual-id";
         String diseaseId = "OMIM:143890";
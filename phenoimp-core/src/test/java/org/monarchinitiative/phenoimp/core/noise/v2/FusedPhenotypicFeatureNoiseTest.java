@@ -0,0 +1,61 @@
+package org.monarchinitiative.phenoimp.core.noise.v2;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.phenoimp.core.TestBase;
+import org.monarchinitiative.phenoimp.core.TestCases;
+import org.monarchinitiative.phenoimp.core.noise.util.AliasTermSampler;
+import org.monarchinitiative.phenoimp.core.noise.util.HpoIndex;
+import org.monarchinitiative.phenoimp.core.noise.util.TermMessages;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+import org.phenopackets.schema.v2.Phenopacket;
+import org.phenopackets.schema.v2.core.PhenotypicFeature;
+
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class FusedPhenotypicFeatureNoiseTest {
+
+    private static final HpoIndex INDEX = HpoIndex.of(TestBase.HPO_TOY);
+
+    @Test
+    public void distortMatchesTheSequentialNoise() {
+        ReplaceHpoWithParent replaceHpoWithParent = new ReplaceHpoWithParent(INDEX, 1, 42L);
+        AddNRandomPhenotypeTerms addNRandomPhenotypeTerms = new AddNRandomPhenotypeTerms(AliasTermSampler.uniform(INDEX), 3, 42L);
+        FusedPhenotypicFeatureNoise fused = new FusedPhenotypicFeatureNoise(replaceHpoWithParent, addNRandomPhenotypeTerms, 42L);
+
+        for (long seed = 0; seed < 20; seed++) {
+            // Both noises draw from the same generator, one after another.
+            Random random = new Random(seed);
+            Phenopacket sequential = addNRandomPhenotypeTerms.distort(replaceHpoWithParent.distort(TestCases.PHENOPACKET, random), random);
+            assertThat(fused.distort(TestCases.PHENOPACKET, new Random(seed)), equalTo(sequential));
+        }
+    }
+
+    @Test
+    public void noisesShareTheTermMessages() {
+        TermMessages messages = new TermMessages(INDEX);
+        ReplaceHpoWithParent replaceHpoWithParent = new ReplaceHpoWithParent(messages, 1, 42L);
+        AddNRandomPhenotypeTerms addNRandomPhenotypeTerms = new AddNRandomPhenotypeTerms(AliasTermSampler.uniform(INDEX), messages, 1, 42L);
+        FusedPhenotypicFeatureNoise fused = new FusedPhenotypicFeatureNoise(replaceHpoWithParent, addNRandomPhenotypeTerms, 42L);
+        int arachnodactyly = INDEX.indexOf(TermId.of("HP:0001166"));
+        Phenopacket pp = Phenopacket.newBuilder()
+                .setId("pp")
+                .addPhenotypicFeatures(messages.v2PhenotypicFeature(arachnodactyly))
+                .build();
+
+        Phenopacket distorted = fused.distort(pp, new Random(1L));
+
+        assertThat(distorted.getPhenotypicFeaturesCount(), equalTo(2));
+        for (PhenotypicFeature pf : distorted.getPhenotypicFeaturesList())
+            assertThat(pf, sameInstance(messages.v2PhenotypicFeature(INDEX.indexOf(pf.getType().getId()))));
+    }
+
+    @Test
+    public void atLeastOneNoiseMustBeProvided() {
+        assertThrows(IllegalArgumentException.class, () -> new FusedPhenotypicFeatureNoise(null, null, 42L));
+    }
+}
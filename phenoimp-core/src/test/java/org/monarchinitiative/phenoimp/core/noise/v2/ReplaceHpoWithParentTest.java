@@ -5,6 +5,8 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.monarchinitiative.phenoimp.core.TestBase;
 import org.monarchinitiative.phenoimp.core.TestCases;
+import org.monarchinitiative.phenoimp.core.noise.util.HpoIndex;
+import org.monarchinitiative.phenoimp.core.noise.util.TermMessages;
 import org.phenopackets.phenopackettools.builder.builders.PhenotypicFeatureBuilder;
 import org.phenopackets.phenopackettools.builder.builders.TimeElements;
 import org.phenopackets.phenopackettools.builder.constants.Laterality;
@@ -13,10 +15,12 @@ import org.phenopackets.schema.v2.core.OntologyClass;
 import org.phenopackets.schema.v2.core.PhenotypicFeature;
 
 import java.util.List;
+import java.util.Random;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class ReplaceHpoWithParentTest {
@@ -68,6 +72,25 @@ public class ReplaceHpoWithParentTest {
         assertThat(ids.get(0).getLabel(), equalTo(label));
     }
 
+    @Test
+    public void featureWithOnlyTheTypeIsReplacedWithTheSharedFeature() {
+        HpoIndex hpoIndex = HpoIndex.of(TestBase.HPO_TOY);
+        TermMessages termMessages = new TermMessages(hpoIndex);
+        ReplaceHpoWithParent fuzzer = new ReplaceHpoWithParent(termMessages, 1, 42L);
+        // The label does not matter, the type is replaced.
+        PhenotypicFeature onlyType = PhenotypicFeature.newBuilder()
+                .setType(OntologyClass.newBuilder().setId("HP:0001166").setLabel("arachnodactyly"))
+                .build();
+        PhenotypicFeature excluded = onlyType.toBuilder().setExcluded(true).build();
+
+        PhenotypicFeature approximated = fuzzer.approximate(onlyType, new Random(42L));
+        PhenotypicFeature approximatedExcluded = fuzzer.approximate(excluded, new Random(42L));
+
+        int ancestor = hpoIndex.indexOf(approximated.getType().getId());
+        assertThat(approximated, sameInstance(termMessages.v2PhenotypicFeature(ancestor)));
+        assertThat(approximatedExcluded, equalTo(approximated.toBuilder().setExcluded(true).build()));
+    }
+
     @Test
     public void nonPhenotypicAbnormalityDropsTheFeature() {
         ReplaceHpoWithParent fuzzer = new ReplaceHpoWithParent(TestBase.HPO_TOY, 2, 42L);
@@ -0,0 +1,73 @@
+package org.monarchinitiative.phenoimp.core.runner;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.phenoimp.core.TestBase;
+import org.monarchinitiative.phenoimp.core.TestCases;
+import org.monarchinitiative.phenoimp.core.noise.util.AliasTermSampler;
+import org.monarchinitiative.phenoimp.core.noise.util.HpoIndex;
+import org.monarchinitiative.phenoimp.core.noise.util.RecessiveDiseaseIndex;
+import org.monarchinitiative.phenoimp.core.noise.v2.AddNRandomPhenotypeTerms;
+import org.monarchinitiative.phenoimp.core.noise.v2.DropOneOfTwoRecessiveVariants;
+import org.monarchinitiative.phenoimp.core.noise.v2.ReplaceHpoWithParent;
+import org.phenopackets.schema.v2.Phenopacket;
+import org.phenopackets.schema.v2.core.Diagnosis;
+import org.phenopackets.schema.v2.core.Disease;
+import org.phenopackets.schema.v2.core.Interpretation;
+import org.phenopackets.schema.v2.core.OntologyClass;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class FusedV2DistortionRunnerTest {
+
+    private static final HpoIndex INDEX = HpoIndex.of(TestBase.HPO_TOY);
+
+    @Test
+    public void runMatchesTheSequentialRunner() {
+        ReplaceHpoWithParent replaceHpoWithParent = new ReplaceHpoWithParent(INDEX, 1, 42L);
+        AddNRandomPhenotypeTerms addNRandomPhenotypeTerms = new AddNRandomPhenotypeTerms(AliasTermSampler.uniform(INDEX), 2, 42L);
+        DropOneOfTwoRecessiveVariants dropOneOfTwoRecessiveVariants = new DropOneOfTwoRecessiveVariants(RecessiveDiseaseIndex.of(TestBase.HPO_TOY, TestBase.DISEASES), 42L);
+        SequentialV2DistortionRunner sequential = new SequentialV2DistortionRunner(List.of(replaceHpoWithParent, addNRandomPhenotypeTerms, dropOneOfTwoRecessiveVariants));
+        FusedV2DistortionRunner fused = new FusedV2DistortionRunner(List.of(replaceHpoWithParent, addNRandomPhenotypeTerms, dropOneOfTwoRecessiveVariants));
+
+        for (Phenopacket pp : List.of(TestCases.PHENOPACKET, withRecessiveDiseaseAndTwoInterpretations())) {
+            for (long seed = 0; seed < 20; seed++) {
+                Phenopacket expected = (Phenopacket) sequential.run(pp, new Random(seed));
+                assertThat(fused.run(pp, new Random(seed)), equalTo(expected));
+            }
+        }
+    }
+
+    @Test
+    public void runDropsOneOfTheInterpretations() {
+        DropOneOfTwoRecessiveVariants dropOneOfTwoRecessiveVariants = new DropOneOfTwoRecessiveVariants(RecessiveDiseaseIndex.of(TestBase.HPO_TOY, TestBase.DISEASES), 42L);
+        FusedV2DistortionRunner fused = new FusedV2DistortionRunner(List.of(dropOneOfTwoRecessiveVariants));
+        Phenopacket pp = withRecessiveDiseaseAndTwoInterpretations();
+
+        Phenopacket distorted = (Phenopacket) fused.run(pp, new Random(1L));
+
+        assertThat(distorted.getInterpretationsCount(), equalTo(1));
+        assertThat(distorted.getPhenotypicFeaturesList(), equalTo(pp.getPhenotypicFeaturesList()));
+    }
+
+    private static Phenopacket withRecessiveDiseaseAndTwoInterpretations() {
+        OntologyClass disease = OntologyClass.newBuilder()
+                .setId("OMIM:143890")
+                .setLabel("Hypercholesterolemia, Familial, 1")
+                .build();
+        return TestCases.PHENOPACKET.toBuilder()
+                .clearDiseases()
+                .addDiseases(Disease.newBuilder().setTerm(disease))
+                .clearInterpretations()
+                .addInterpretations(Interpretation.newBuilder()
+                        .setId("first-interpretation-id")
+                        .setDiagnosis(Diagnosis.newBuilder().setDisease(disease)))
+                .addInterpretations(Interpretation.newBuilder()
+                        .setId("second-interpretation-id")
+                        .setDiagnosis(Diagnosis.newBuilder().setDisease(disease)))
+                .build();
+    }
+}
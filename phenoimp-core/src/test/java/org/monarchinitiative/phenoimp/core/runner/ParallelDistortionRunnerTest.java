@@ -0,0 +1,112 @@
+package org.monarchinitiative.phenoimp.core.runner;
+
+import com.google.protobuf.Message;
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.phenoimp.core.DistortionRunner;
+import org.monarchinitiative.phenoimp.core.PhenoImp;
+import org.monarchinitiative.phenoimp.core.PhenopacketVersion;
+import org.monarchinitiative.phenoimp.core.TestBase;
+import org.monarchinitiative.phenoimp.core.TestCases;
+import org.monarchinitiative.phenoimp.core.noise.v2.AddNRandomPhenotypeTerms;
+import org.phenopackets.schema.v2.Phenopacket;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class ParallelDistortionRunnerTest {
+
+    private static final PhenoImp PHENO_IMP = phenoImp();
+
+    @Test
+    public void resultDoesNotDependOnNumberOfThreadsOrOrder() {
+        List<Phenopacket> cohort = IntStream.range(0, 50)
+                .mapToObj(i -> TestCases.PHENOPACKET.toBuilder().setId("pp-" + i).build())
+                .toList();
+        List<Phenopacket> reversed = new ArrayList<>(cohort);
+        Collections.reverse(reversed);
+
+        List<Message> sequential;
+        try (ParallelDistortionRunner runner = new ParallelDistortionRunner(PHENO_IMP, 1)) {
+            sequential = runner.run(cohort);
+        }
+        List<Message> parallel;
+        try (ParallelDistortionRunner runner = new ParallelDistortionRunner(PHENO_IMP, 4)) {
+            parallel = runner.run(reversed);
+        }
+        Collections.reverse(parallel);
+
+        assertThat(parallel, equalTo(sequential));
+    }
+
+    @Test
+    public void distortMatchesCohortRun() {
+        Phenopacket pp = TestCases.PHENOPACKET;
+        try (ParallelDistortionRunner runner = new ParallelDistortionRunner(PHENO_IMP, 2)) {
+            Message expected = runner.run(List.of(pp)).get(0);
+
+            assertThat(runner.distort(pp), equalTo(expected));
+        }
+    }
+
+    @Test
+    public void firstReplicateMatchesDistort() {
+        Phenopacket pp = TestCases.PHENOPACKET;
+        try (ParallelDistortionRunner runner = new ParallelDistortionRunner(PHENO_IMP, 1)) {
+            assertThat(runner.replicateSeed(0), equalTo(PHENO_IMP.randomSeed()));
+            assertThat(runner.distort(pp, 0), equalTo(runner.distort(pp)));
+        }
+    }
+
+    @Test
+    public void replicateCanBeRegeneratedFromItsSeed() {
+        Phenopacket pp = TestCases.PHENOPACKET;
+        try (ParallelDistortionRunner runner = new ParallelDistortionRunner(PHENO_IMP, 1)) {
+            long seed = runner.replicateSeed(3);
+            assertThat(seed == PHENO_IMP.randomSeed(), equalTo(false));
+
+            try (ParallelDistortionRunner replicate = new ParallelDistortionRunner(phenoImp(seed), 1)) {
+                assertThat(replicate.distort(pp), equalTo(runner.distort(pp, 3)));
+            }
+        }
+    }
+
+    @Test
+    public void blankIdIsKeyedBySourceAndIndex() {
+        Phenopacket blank = TestCases.PHENOPACKET.toBuilder().setId("").build();
+        Phenopacket withId = TestCases.PHENOPACKET.toBuilder().setId("pp-0").build();
+        try (ParallelDistortionRunner runner = new ParallelDistortionRunner(PHENO_IMP, 1)) {
+            assertThat(runner.randomSeed(blank, 0, "cohort.ndjson", 0), equalTo(runner.randomSeed(blank, 0, "cohort.ndjson", 0)));
+            assertThat(runner.randomSeed(blank, 0, "cohort.ndjson", 0) == runner.randomSeed(blank, 0, "cohort.ndjson", 1), equalTo(false));
+            assertThat(runner.randomSeed(blank, 0, "cohort.ndjson", 0) == runner.randomSeed(blank, 0, "other.ndjson", 0), equalTo(false));
+            // The phenopacket ID wins over the source and the index.
+            assertThat(runner.randomSeed(withId, 0, "cohort.ndjson", 0), equalTo(runner.randomSeed(withId, 0, "other.ndjson", 7)));
+            assertThat(runner.randomSeed(withId, 0, "cohort.ndjson", 0), equalTo(runner.randomSeed(withId)));
+
+            List<Message> distorted = runner.run(List.of(blank, blank));
+            assertThat(distorted.get(0), equalTo(runner.distort(PHENO_IMP, blank, 0, "", 0)));
+            assertThat(distorted.get(1), equalTo(runner.distort(PHENO_IMP, blank, 0, "", 1)));
+        }
+    }
+
+    private static PhenoImp phenoImp() {
+        return phenoImp(42L);
+    }
+
+    private static PhenoImp phenoImp(long randomSeed) {
+        DistortionRunner runner = new SequentialV2DistortionRunner(List.of(new AddNRandomPhenotypeTerms(TestBase.HPO_TOY, 2, 42L)));
+        return new PhenoImp() {
+            @Override
+            public Optional<DistortionRunner> forPhenopacket(PhenopacketVersion version) {
+                return version == PhenopacketVersion.V2 ? Optional.of(runner) : Optional.empty();
+            }
+
+            @Override
+            public long randomSeed() {
+                return randomSeed;
+            }
+        };
+    }
+}